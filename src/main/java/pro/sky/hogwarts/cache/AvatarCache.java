@@ -0,0 +1,124 @@
+package pro.sky.hogwarts.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import pro.sky.hogwarts.exception.AvatarProcessingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+public class AvatarCache {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final boolean offHeap;
+    private final LinkedHashMap<String, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public AvatarCache(@Value("${avatar.cache.max-bytes:67108864}") long maxBytes,
+                       @Value("${avatar.cache.max-entry-bytes:1048576}") long maxEntryBytes,
+                       @Value("${avatar.cache.off-heap:true}") boolean offHeap,
+                       ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.offHeap = offHeap;
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        this.hits = meterRegistry.counter("avatar.cache.hits");
+        this.misses = meterRegistry.counter("avatar.cache.misses");
+        this.evictions = meterRegistry.counter("avatar.cache.evictions");
+        Gauge.builder("avatar.cache.size.bytes", this, AvatarCache::usedBytes).register(meterRegistry);
+        Gauge.builder("avatar.cache.entries", this, AvatarCache::entries).register(meterRegistry);
+    }
+
+    public Optional<Resource> get(String hash) {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = entries.get(hash);
+        }
+        if (buffer == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new ByteBufferResource(buffer, hash));
+    }
+
+    public Resource put(String hash, long size, Resource resource) {
+        if (size <= 0 || size > maxEntryBytes || size > maxBytes) {
+            return resource;
+        }
+        ByteBuffer buffer = read(resource, (int) size);
+        synchronized (this) {
+            ByteBuffer previous = entries.put(hash, buffer);
+            if (previous != null) {
+                usedBytes -= previous.capacity();
+            }
+            usedBytes += buffer.capacity();
+            evictIfNeeded();
+        }
+        return new ByteBufferResource(buffer, hash);
+    }
+
+    public synchronized void evict(String hash) {
+        ByteBuffer buffer = entries.remove(hash);
+        if (buffer != null) {
+            usedBytes -= buffer.capacity();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, ByteBuffer>> iterator = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().getValue().capacity();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private ByteBuffer read(Resource resource, int size) {
+        ByteBuffer buffer = offHeap ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        try (InputStream in = resource.getInputStream()) {
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int read;
+            while (buffer.hasRemaining() && (read = in.read(chunk, 0, Math.min(chunk.length, buffer.remaining()))) != -1) {
+                buffer.put(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            throw new AvatarProcessingException();
+        }
+        if (buffer.hasRemaining()) {
+            throw new AvatarProcessingException();
+        }
+        return buffer.flip().asReadOnlyBuffer();
+    }
+
+    private synchronized double usedBytes() {
+        return usedBytes;
+    }
+
+    private synchronized double entries() {
+        return entries.size();
+    }
+}
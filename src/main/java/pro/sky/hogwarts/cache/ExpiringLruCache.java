@@ -0,0 +1,109 @@
+package pro.sky.hogwarts.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+public class ExpiringLruCache<K, V> {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ExpiringLruCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringLruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = meterRegistry.counter(name + ".hits");
+        this.misses = meterRegistry.counter(name + ".misses");
+        this.evictions = meterRegistry.counter(name + ".evictions");
+        Gauge.builder(name + ".size", this, ExpiringLruCache::size).register(meterRegistry);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long observed;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            observed = generation;
+        }
+        misses.increment();
+        V value = loader.apply(key);
+        if (value != null) {
+            putIfUnchanged(key, value, observed);
+        }
+        return value;
+    }
+
+    public V getIfPresent(K key) {
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void putIfUnchanged(K key, V value, long observed) {
+        if (generation == observed) {
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public synchronized void put(K key, V value) {
+        generation++;
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void evict(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    private synchronized double size() {
+        return entries.size();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package pro.sky.hogwarts.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pro.sky.hogwarts.dto.FacultyDtoOut;
+import pro.sky.hogwarts.invalidation.EntityType;
+import pro.sky.hogwarts.invalidation.InvalidationBus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+public class FacultyCache {
+    private static final String ALL = "all";
+    private static final String COLOR = "color:";
+
+    private final ExpiringLruCache<Long, Optional<FacultyDtoOut>> byId;
+    private final ExpiringLruCache<String, List<FacultyDtoOut>> lists;
+
+    private final InvalidationBus invalidationBus;
+
+    public FacultyCache(@Value("${faculty.cache.max-size:1000}") int maxSize,
+                        @Value("${faculty.cache.ttl:10m}") Duration ttl,
+                        ObjectProvider<MeterRegistry> meterRegistryProvider,
+                        InvalidationBus invalidationBus) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        this.byId = new ExpiringLruCache<>("faculty.cache.id", maxSize, ttl, meterRegistry);
+        this.lists = new ExpiringLruCache<>("faculty.cache.list", maxSize, ttl, meterRegistry);
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(EntityType.FACULTY, id -> {
+            if (id == null) {
+                clear();
+            } else {
+                evictLocal(id);
+            }
+        });
+    }
+
+    public Optional<FacultyDtoOut> get(long id, Function<Long, Optional<FacultyDtoOut>> loader) {
+        return byId.get(id, loader);
+    }
+
+    public List<FacultyDtoOut> getAllById(List<Long> ids, Function<List<Long>, List<FacultyDtoOut>> loader) {
+        List<FacultyDtoOut> faculties = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            Optional<FacultyDtoOut> cached = byId.getIfPresent(id);
+            if (cached == null) {
+                missingIds.add(id);
+            } else {
+                cached.ifPresent(faculties::add);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            long observed = byId.generation();
+            Map<Long, FacultyDtoOut> loaded = loader.apply(missingIds).stream()
+                    .collect(Collectors.toMap(FacultyDtoOut::getId, Function.identity()));
+            for (Long id : missingIds) {
+                Optional<FacultyDtoOut> faculty = Optional.ofNullable(loaded.get(id));
+                byId.putIfUnchanged(id, faculty, observed);
+                faculty.ifPresent(faculties::add);
+            }
+        }
+        return faculties;
+    }
+
+    public List<FacultyDtoOut> getAll(Supplier<List<FacultyDtoOut>> loader) {
+        return lists.get(ALL, key -> loader.get());
+    }
+
+    public List<FacultyDtoOut> getByColor(String color, Function<String, List<FacultyDtoOut>> loader) {
+        return lists.get(COLOR + color, key -> loader.apply(color));
+    }
+
+    public void put(FacultyDtoOut faculty) {
+        afterCommit(() -> {
+            byId.put(faculty.getId(), Optional.of(faculty));
+            lists.clear();
+        });
+        invalidationBus.publish(EntityType.FACULTY, faculty.getId());
+    }
+
+    public void evict(long id) {
+        afterCommit(() -> evictLocal(id));
+        invalidationBus.publish(EntityType.FACULTY, id);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void evictLocal(long id) {
+        byId.evict(id);
+        lists.clear();
+    }
+
+    public void clear() {
+        byId.clear();
+        lists.clear();
+    }
+}
@@ -1,39 +1,86 @@
 package pro.sky.hogwarts.controller;
 
-import org.springframework.data.util.Pair;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import pro.sky.hogwarts.dto.AvatarDtoOut;
+import pro.sky.hogwarts.dto.PageDtoOut;
+import pro.sky.hogwarts.entity.Avatar;
 import pro.sky.hogwarts.service.*;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
 @RestController
 @RequestMapping("/avatars")
 public class AvatarController {
 
     private final AvatarService avatarService;
+    private final CacheControl cacheControl;
 
-    public AvatarController(AvatarService avatarService) {
+    public AvatarController(AvatarService avatarService,
+                            @Value("${avatar.cache-control.max-age:3600}") long maxAge) {
         this.avatarService = avatarService;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic();
+    }
+
+    @GetMapping
+    public PageDtoOut<AvatarDtoOut> findAll(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        return avatarService.findAll(cursor, size);
     }
 
     @GetMapping("/{id}/from-db")
-    public ResponseEntity<byte[]> getFromDb(@PathVariable long id){
-        return build(avatarService.getFromDb(id));
+    public ResponseEntity<Resource> getFromDb(@PathVariable long id, WebRequest request){
+        Avatar avatar = avatarService.get(id);
+        return build(request, avatar.getChecksum(), avatar, MediaType.parseMediaType(avatar.getMediaType()),
+                () -> avatarService.getFromDb(avatar));
     }
 
     @GetMapping("/{id}/from-fs")
-    public ResponseEntity<byte[]> getFromFs(@PathVariable long id){
-        return build(avatarService.getFromFs(id));
+    public ResponseEntity<Resource> getFromFs(@PathVariable long id, WebRequest request){
+        Avatar avatar = avatarService.get(id);
+        return build(request, avatar.getChecksum(), avatar, MediaType.parseMediaType(avatar.getMediaType()),
+                () -> avatarService.getFromFs(avatar));
+    }
+
+    @GetMapping("/{id}/preview")
+    public ResponseEntity<Resource> getPreview(@PathVariable long id,
+                                               @RequestParam(defaultValue = "64") int size,
+                                               WebRequest request){
+        Avatar avatar = avatarService.get(id);
+        int previewSize = avatarService.previewSize(size);
+        return build(request, avatar.getChecksum() + "-" + previewSize, avatar, MediaType.IMAGE_PNG,
+                () -> avatarService.getPreview(avatar, previewSize));
     }
 
-    private ResponseEntity<byte[]> build(Pair<byte[], String> pair){
-        byte[] data = pair.getFirst();
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(pair.getSecond()))
-                .contentLength(data.length)
-                .body(data);
+    private ResponseEntity<Resource> build(WebRequest request, String eTag, Avatar avatar,
+                                           MediaType mediaType, Supplier<Resource> body){
+        long lastModified = Optional.ofNullable(avatar.getLastModified())
+                .map(Instant::toEpochMilli)
+                .orElse(-1L);
+        boolean notModified = request.checkNotModified(eTag, lastModified);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(eTag)
+                .cacheControl(cacheControl);
+        if (lastModified >= 0) {
+            builder.lastModified(lastModified);
+        }
+        if (notModified) {
+            return builder.build();
+        }
+        return builder.contentType(mediaType)
+                .body(body.get());
     }
 }
@@ -0,0 +1,29 @@
+package pro.sky.hogwarts.controller;
+
+import io.micrometer.common.lang.Nullable;
+import pro.sky.hogwarts.exception.PreconditionFailedException;
+
+final class ETags {
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    @Nullable
+    static Long version(@Nullable String ifMatch, long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException(id);
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package pro.sky.hogwarts.controller;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import pro.sky.hogwarts.dto.BatchDtoOut;
 import pro.sky.hogwarts.dto.FacultyDtoIn;
 import pro.sky.hogwarts.dto.FacultyDtoOut;
+import pro.sky.hogwarts.dto.FacultyRosterDtoOut;
+import pro.sky.hogwarts.dto.FacultyStatsDtoOut;
+import pro.sky.hogwarts.dto.PageDtoOut;
 import pro.sky.hogwarts.dto.StudentDtoOut;
 import pro.sky.hogwarts.service.FacultyService;
+import pro.sky.hogwarts.service.StudentStatsService;
 
 import java.util.List;
 
@@ -15,9 +22,11 @@ import java.util.List;
 public class FacultyController {
 
     private final FacultyService facultyService;
+    private final StudentStatsService studentStatsService;
 
-    public FacultyController(FacultyService facultyService) {
+    public FacultyController(FacultyService facultyService, StudentStatsService studentStatsService) {
         this.facultyService = facultyService;
+        this.studentStatsService = studentStatsService;
     }
 
     @PostMapping
@@ -26,31 +35,57 @@ public class FacultyController {
     }
 
     @PutMapping("/{id}")
-    public FacultyDtoOut update(@PathVariable("id") long id, @RequestBody FacultyDtoIn facultyDtoIn) {
-        return facultyService.update(id, facultyDtoIn);
+    public ResponseEntity<FacultyDtoOut> update(@PathVariable("id") long id,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @RequestBody FacultyDtoIn facultyDtoIn) {
+        FacultyDtoOut facultyDtoOut = facultyService.update(id, facultyDtoIn, ETags.version(ifMatch, id));
+        return ResponseEntity.ok().eTag(ETags.of(facultyDtoOut.getVersion())).body(facultyDtoOut);
     }
 
     @GetMapping("/{id}")
-    public FacultyDtoOut get(@PathVariable("id") long id) {
-        return facultyService.get(id);
+    public ResponseEntity<FacultyDtoOut> get(@PathVariable("id") long id) {
+        FacultyDtoOut facultyDtoOut = facultyService.get(id);
+        return ResponseEntity.ok().eTag(ETags.of(facultyDtoOut.getVersion())).body(facultyDtoOut);
     }
 
     @DeleteMapping("/{id}")
-    public FacultyDtoOut delete(@PathVariable("id") long id) {
-        return facultyService.delete(id);
+    public FacultyDtoOut delete(@PathVariable("id") long id,
+                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return facultyService.delete(id, ETags.version(ifMatch, id));
     }
 
     @GetMapping
-    public List<FacultyDtoOut> findAll(@RequestParam(required = false) String color) {
-        return facultyService.findAll(color);
+    public PageDtoOut<FacultyDtoOut> findAll(@RequestParam(required = false) String color,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer size) {
+        return facultyService.findAll(color, cursor, size);
     }
+    @GetMapping(params = "ids")
+    public BatchDtoOut<FacultyDtoOut> findAllById(@RequestParam List<Long> ids) {
+        return facultyService.findAllById(ids);
+    }
+
     @GetMapping("/filter")
     public List<FacultyDtoOut> findByColorOrName(@RequestParam String colorOrName) {
         return facultyService.findByColorOrName(colorOrName);
     }
 
     @GetMapping("/{id}/students")
-    public List<StudentDtoOut> findStudents(@PathVariable("id") long id){
-        return facultyService.findStudents(id);
+    public PageDtoOut<StudentDtoOut> findStudents(@PathVariable("id") long id,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer size){
+        return facultyService.findStudents(id, cursor, size);
+    }
+
+    @GetMapping("/{id}/roster")
+    public FacultyRosterDtoOut findRoster(@PathVariable("id") long id,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size) {
+        return facultyService.findRoster(id, cursor, size);
+    }
+
+    @GetMapping("/{id}/stats")
+    public FacultyStatsDtoOut stats(@PathVariable("id") long id) {
+        return studentStatsService.faculty(id);
     }
 }
@@ -1,12 +1,17 @@
 package pro.sky.hogwarts.controller;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pro.sky.hogwarts.dto.*;
 import pro.sky.hogwarts.service.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,9 +20,16 @@ import java.util.List;
 public class StudentController {
 
     private final StudentService studentService;
+    private final StudentExportService studentExportService;
+    private final StudentImportService studentImportService;
+    private final StudentStatsService studentStatsService;
 
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, StudentExportService studentExportService,
+                             StudentImportService studentImportService, StudentStatsService studentStatsService) {
         this.studentService = studentService;
+        this.studentExportService = studentExportService;
+        this.studentImportService = studentImportService;
+        this.studentStatsService = studentStatsService;
     }
 
     @PostMapping
@@ -25,29 +37,81 @@ public class StudentController {
         return studentService.create(studentDtoIn);
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ImportResultDtoOut importCsv(InputStream inputStream) throws IOException {
+        return studentImportService.importCsv(inputStream);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ImportResultDtoOut importJson(InputStream inputStream) throws IOException {
+        return studentImportService.importJson(inputStream);
+    }
+
     @PutMapping("/{id}")
-    public StudentDtoOut update(@PathVariable("id") long id, @RequestBody StudentDtoIn studentDtoIn) {
-        return studentService.update(id, studentDtoIn);
+    public ResponseEntity<StudentDtoOut> update(@PathVariable("id") long id,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                @RequestBody StudentDtoIn studentDtoIn) {
+        StudentDtoOut studentDtoOut = studentService.update(id, studentDtoIn, ETags.version(ifMatch, id));
+        return ResponseEntity.ok().eTag(ETags.of(studentDtoOut.getVersion())).body(studentDtoOut);
     }
 
     @GetMapping("/{id}")
-    public StudentDtoOut get(@PathVariable("id") long id) {
-        return studentService.get(id);
+    public ResponseEntity<StudentDtoOut> get(@PathVariable("id") long id) {
+        StudentDtoOut studentDtoOut = studentService.get(id);
+        return ResponseEntity.ok().eTag(ETags.of(studentDtoOut.getVersion())).body(studentDtoOut);
     }
 
     @DeleteMapping("/{id}")
-    public StudentDtoOut delete(@PathVariable("id") long id) {
-        return studentService.delete(id);
+    public StudentDtoOut delete(@PathVariable("id") long id,
+                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return studentService.delete(id, ETags.version(ifMatch, id));
     }
 
     @GetMapping
-    public List<StudentDtoOut> findAll(@RequestParam(required = false) Integer age) {
-        return studentService.findAll(age);
+    public PageDtoOut<StudentDtoOut> findAll(@RequestParam(required = false) Integer age,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer size) {
+        return studentService.findAll(age, cursor, size);
+    }
+
+    @GetMapping(params = "ids")
+    public BatchDtoOut<StudentDtoOut> findAllById(@RequestParam List<Long> ids) {
+        return studentService.findAllById(ids);
     }
 
     @GetMapping("/filter")
-    public List<StudentDtoOut> findByAgeBetween(@RequestParam int ageFrom, @RequestParam int ageTo) {
-        return studentService.findByAgeBetween(ageFrom, ageTo);
+    public PageDtoOut<StudentDtoOut> findByAgeBetween(@RequestParam int ageFrom, @RequestParam int ageTo,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return studentService.findByAgeBetween(ageFrom, ageTo, cursor, size);
+    }
+
+    @GetMapping("/count")
+    public long count(@RequestParam(required = false) Integer age) {
+        return studentService.count(age);
+    }
+
+    @GetMapping("/filter/count")
+    public long countByAgeBetween(@RequestParam int ageFrom, @RequestParam int ageTo) {
+        return studentService.countByAgeBetween(ageFrom, ageTo);
+    }
+
+    @GetMapping("/stats")
+    public StudentStatsDtoOut stats(@RequestParam(required = false) Integer limit) {
+        return studentStatsService.students(limit);
+    }
+
+    @GetMapping("/suggest")
+    public List<StudentSuggestionDtoOut> suggest(@RequestParam String prefix,
+                                                 @RequestParam(required = false) Integer limit) {
+        return studentService.suggest(prefix, limit);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(studentExportService::export);
     }
 
     @GetMapping("/{id}/faculty")
@@ -0,0 +1,32 @@
+package pro.sky.hogwarts.dto;
+
+import java.util.List;
+
+public class BatchDtoOut<T> {
+    private List<T> items;
+    private List<Long> missingIds;
+
+    public BatchDtoOut(List<T> items, List<Long> missingIds) {
+        this.items = items;
+        this.missingIds = missingIds;
+    }
+
+    public BatchDtoOut() {
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -4,6 +4,7 @@ public class FacultyDtoOut {
     private long id;
     private String name;
     private String color;
+    private long version;
 
     public FacultyDtoOut(long id, String name, String color) {
         this.id = id;
@@ -37,4 +38,12 @@ public class FacultyDtoOut {
     public void setColor(String color) {
         this.color = color;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
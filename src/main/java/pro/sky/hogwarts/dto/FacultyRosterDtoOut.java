@@ -0,0 +1,40 @@
+package pro.sky.hogwarts.dto;
+
+public class FacultyRosterDtoOut {
+    private FacultyDtoOut faculty;
+    private long studentCount;
+    private PageDtoOut<StudentSlimDtoOut> students;
+
+    public FacultyRosterDtoOut(FacultyDtoOut faculty, long studentCount, PageDtoOut<StudentSlimDtoOut> students) {
+        this.faculty = faculty;
+        this.studentCount = studentCount;
+        this.students = students;
+    }
+
+    public FacultyRosterDtoOut() {
+    }
+
+    public FacultyDtoOut getFaculty() {
+        return faculty;
+    }
+
+    public void setFaculty(FacultyDtoOut faculty) {
+        this.faculty = faculty;
+    }
+
+    public long getStudentCount() {
+        return studentCount;
+    }
+
+    public void setStudentCount(long studentCount) {
+        this.studentCount = studentCount;
+    }
+
+    public PageDtoOut<StudentSlimDtoOut> getStudents() {
+        return students;
+    }
+
+    public void setStudents(PageDtoOut<StudentSlimDtoOut> students) {
+        this.students = students;
+    }
+}
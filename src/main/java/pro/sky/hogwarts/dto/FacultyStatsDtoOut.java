@@ -0,0 +1,49 @@
+package pro.sky.hogwarts.dto;
+
+public class FacultyStatsDtoOut {
+    private FacultyDtoOut faculty;
+    private long count;
+    private Double averageAge;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public FacultyDtoOut getFaculty() {
+        return faculty;
+    }
+
+    public void setFaculty(FacultyDtoOut faculty) {
+        this.faculty = faculty;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Double getAverageAge() {
+        return averageAge;
+    }
+
+    public void setAverageAge(Double averageAge) {
+        this.averageAge = averageAge;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+}
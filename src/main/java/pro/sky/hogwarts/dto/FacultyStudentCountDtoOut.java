@@ -0,0 +1,31 @@
+package pro.sky.hogwarts.dto;
+
+public class FacultyStudentCountDtoOut {
+    private long facultyId;
+    private String name;
+    private long count;
+
+    public long getFacultyId() {
+        return facultyId;
+    }
+
+    public void setFacultyId(long facultyId) {
+        this.facultyId = facultyId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,30 @@
+package pro.sky.hogwarts.dto;
+
+public class ImportErrorDtoOut {
+    private long row;
+    private String message;
+
+    public ImportErrorDtoOut(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+
+    public ImportErrorDtoOut() {
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    public void setRow(long row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
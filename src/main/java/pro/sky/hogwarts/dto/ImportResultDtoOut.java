@@ -0,0 +1,25 @@
+package pro.sky.hogwarts.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResultDtoOut {
+    private long imported;
+    private List<ImportErrorDtoOut> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public List<ImportErrorDtoOut> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportErrorDtoOut> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,32 @@
+package pro.sky.hogwarts.dto;
+
+import java.util.List;
+
+public class PageDtoOut<T> {
+    private List<T> items;
+    private String nextCursor;
+
+    public PageDtoOut(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public PageDtoOut() {
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
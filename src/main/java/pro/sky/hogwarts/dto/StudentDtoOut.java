@@ -4,8 +4,12 @@ public class StudentDtoOut {
     private long id;
     private String name;
     private int age;
+    private long version;
     private FacultyDtoOut faculty;
     private String avatarUrl;
+    private Long avatarId;
+    private String avatarMediaType;
+    private Long avatarSize;
 
     public long getId() {
         return id;
@@ -46,4 +50,36 @@ public class StudentDtoOut {
     public void setAvatarUrl(String avatarUrl) {
         this.avatarUrl = avatarUrl;
     }
+
+    public Long getAvatarId() {
+        return avatarId;
+    }
+
+    public void setAvatarId(Long avatarId) {
+        this.avatarId = avatarId;
+    }
+
+    public String getAvatarMediaType() {
+        return avatarMediaType;
+    }
+
+    public void setAvatarMediaType(String avatarMediaType) {
+        this.avatarMediaType = avatarMediaType;
+    }
+
+    public Long getAvatarSize() {
+        return avatarSize;
+    }
+
+    public void setAvatarSize(Long avatarSize) {
+        this.avatarSize = avatarSize;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,40 @@
+package pro.sky.hogwarts.dto;
+
+public class StudentSlimDtoOut {
+    private long id;
+    private String name;
+    private int age;
+
+    public StudentSlimDtoOut(long id, String name, int age) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+    }
+
+    public StudentSlimDtoOut() {
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public void setAge(int age) {
+        this.age = age;
+    }
+}
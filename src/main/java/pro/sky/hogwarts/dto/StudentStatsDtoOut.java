@@ -0,0 +1,69 @@
+package pro.sky.hogwarts.dto;
+
+import java.util.List;
+
+public class StudentStatsDtoOut {
+    private long count;
+    private Double averageAge;
+    private Integer minAge;
+    private Integer maxAge;
+    private List<StudentDtoOut> youngest;
+    private List<StudentDtoOut> oldest;
+    private List<FacultyStudentCountDtoOut> faculties;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Double getAverageAge() {
+        return averageAge;
+    }
+
+    public void setAverageAge(Double averageAge) {
+        this.averageAge = averageAge;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public List<StudentDtoOut> getYoungest() {
+        return youngest;
+    }
+
+    public void setYoungest(List<StudentDtoOut> youngest) {
+        this.youngest = youngest;
+    }
+
+    public List<StudentDtoOut> getOldest() {
+        return oldest;
+    }
+
+    public void setOldest(List<StudentDtoOut> oldest) {
+        this.oldest = oldest;
+    }
+
+    public List<FacultyStudentCountDtoOut> getFaculties() {
+        return faculties;
+    }
+
+    public void setFaculties(List<FacultyStudentCountDtoOut> faculties) {
+        this.faculties = faculties;
+    }
+}
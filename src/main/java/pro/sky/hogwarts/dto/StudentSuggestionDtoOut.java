@@ -0,0 +1,30 @@
+package pro.sky.hogwarts.dto;
+
+public class StudentSuggestionDtoOut {
+    private long id;
+    private String name;
+
+    public StudentSuggestionDtoOut(long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public StudentSuggestionDtoOut() {
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
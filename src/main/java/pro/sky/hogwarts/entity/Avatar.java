@@ -2,18 +2,21 @@ package pro.sky.hogwarts.entity;
 
 import jakarta.persistence.*;
 
+import java.time.Instant;
+
 @Entity
+@Table(indexes = @Index(columnList = "checksum"),
+        uniqueConstraints = @UniqueConstraint(name = "avatar_student_id_key", columnNames = "student_id"))
 public class Avatar {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    private String filePath;
     private long fileSize;
     private String mediaType;
-    @Lob
-    private byte[] data;
+    private String checksum;
+    private Instant lastModified;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id")
     private Student student;
 
@@ -25,14 +28,6 @@ public class Avatar {
         this.id = id;
     }
 
-    public String getFilePath() {
-        return filePath;
-    }
-
-    public void setFilePath(String filePath) {
-        this.filePath = filePath;
-    }
-
     public long getFileSize() {
         return fileSize;
     }
@@ -49,12 +44,20 @@ public class Avatar {
         this.mediaType = mediaType;
     }
 
-    public byte[] getData() {
-        return data;
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
     }
 
-    public void setData(byte[] data) {
-        this.data = data;
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
     }
 
     public Student getStudent() {
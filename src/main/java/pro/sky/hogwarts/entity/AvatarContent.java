@@ -0,0 +1,39 @@
+package pro.sky.hogwarts.entity;
+
+import jakarta.persistence.*;
+
+import java.sql.Blob;
+
+@Entity
+@Table(name = "avatar_content")
+public class AvatarContent {
+    @Id
+    private String hash;
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    private Blob data;
+
+    public AvatarContent(String hash, Blob data) {
+        this.hash = hash;
+        this.data = data;
+    }
+
+    public AvatarContent() {
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public Blob getData() {
+        return data;
+    }
+
+    public void setData(Blob data) {
+        this.data = data;
+    }
+}
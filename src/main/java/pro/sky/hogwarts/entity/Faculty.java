@@ -12,6 +12,10 @@ public class Faculty {
     private Long id;
     private String name;
     private String color;
+    @Column(name = "student_count", updatable = false)
+    private long studentCount;
+    @Version
+    private long version;
 
     @OneToMany (mappedBy = "faculty")
     private List<Student> students;
@@ -51,6 +55,14 @@ public class Faculty {
         this.color = color;
     }
 
+    public long getStudentCount() {
+        return studentCount;
+    }
+
+    public void setStudentCount(long studentCount) {
+        this.studentCount = studentCount;
+    }
+
     public List<Student> getStudents() {
         return students;
     }
@@ -58,4 +70,12 @@ public class Faculty {
     public void setStudents(List<Student> students) {
         this.students = students;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,18 @@
+package pro.sky.hogwarts.exception;
+
+public class AvatarTooLargeException extends RuntimeException {
+    private final String hash;
+    private final int width;
+    private final int height;
+
+    public AvatarTooLargeException(String hash, int width, int height) {
+        this.hash = hash;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Изображение аватара " + hash + " слишком большое: " + width + "x" + height + "!";
+    }
+}
@@ -0,0 +1,14 @@
+package pro.sky.hogwarts.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    private final String cursor;
+
+    public InvalidCursorException(String cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Некорректный курсор: " + cursor;
+    }
+}
@@ -0,0 +1,14 @@
+package pro.sky.hogwarts.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    private final long id;
+
+    public PreconditionFailedException(long id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Запись с id = " + id + " была изменена другим запросом!";
+    }
+}
@@ -12,6 +12,26 @@ public class SchoolExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
     }
 
+    @ExceptionHandler({InvalidCursorException.class, TooManyIdsException.class})
+    public ResponseEntity<?> handleBadRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlePreconditionFailed(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
+    @ExceptionHandler(UnsupportedAvatarFormatException.class)
+    public ResponseEntity<?> handleUnsupportedMediaType(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(e.getMessage());
+    }
+
+    @ExceptionHandler(AvatarTooLargeException.class)
+    public ResponseEntity<?> handlePayloadTooLarge(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+    }
+
     @ExceptionHandler(AvatarProcessingException.class)
     public ResponseEntity<?> handleInternalServerError() {
         return ResponseEntity.internalServerError().build();
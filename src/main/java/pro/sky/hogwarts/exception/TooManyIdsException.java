@@ -0,0 +1,16 @@
+package pro.sky.hogwarts.exception;
+
+public class TooManyIdsException extends RuntimeException {
+    private final int size;
+    private final int maxSize;
+
+    public TooManyIdsException(int size, int maxSize) {
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Запрошено слишком много id: " + size + ", максимум " + maxSize;
+    }
+}
@@ -0,0 +1,14 @@
+package pro.sky.hogwarts.exception;
+
+public class UnsupportedAvatarFormatException extends RuntimeException {
+    private final String hash;
+
+    public UnsupportedAvatarFormatException(String hash) {
+        this.hash = hash;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Не удалось прочитать изображение аватара " + hash + "!";
+    }
+}
@@ -0,0 +1,49 @@
+package pro.sky.hogwarts.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class DebouncedTask {
+    private static final Logger log = LoggerFactory.getLogger(DebouncedTask.class);
+
+    private final String name;
+    private final Runnable task;
+    private final long delayMs;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    DebouncedTask(String name, Runnable task, long delayMs) {
+        this.name = name;
+        this.task = task;
+        this.delayMs = delayMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void request() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::run, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run() {
+        scheduled.set(false);
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось выполнить {}", name, e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package pro.sky.hogwarts.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import pro.sky.hogwarts.dto.FacultyDtoOut;
+import pro.sky.hogwarts.invalidation.EntityType;
+import pro.sky.hogwarts.invalidation.InvalidationBus;
+import pro.sky.hogwarts.mapper.FacultyMapper;
+import pro.sky.hogwarts.repository.FacultyRepository;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+public class FacultySearchIndex {
+    private static final int GRAM = 3;
+
+    private final FacultyRepository facultyRepository;
+    private final FacultyMapper facultyMapper;
+    private final int limit;
+    private volatile Snapshot snapshot = new Snapshot(Map.of());
+
+    public FacultySearchIndex(FacultyRepository facultyRepository,
+                              FacultyMapper facultyMapper,
+                              InvalidationBus invalidationBus,
+                              @Value("${faculty.search.limit:20}") int limit) {
+        this.facultyRepository = facultyRepository;
+        this.facultyMapper = facultyMapper;
+        this.limit = limit;
+        invalidationBus.subscribe(EntityType.FACULTY, id -> {
+            if (id == null) {
+                rebuild();
+            } else {
+                facultyRepository.findById(id)
+                        .map(facultyMapper::toDto)
+                        .ifPresentOrElse(this::put, () -> remove(id));
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        snapshot = new Snapshot(facultyRepository.findAll().stream()
+                .map(facultyMapper::toDto)
+                .collect(Collectors.toMap(FacultyDtoOut::getId, faculty -> faculty)));
+    }
+
+    public synchronized void put(FacultyDtoOut faculty) {
+        Map<Long, FacultyDtoOut> faculties = new HashMap<>(snapshot.faculties);
+        faculties.put(faculty.getId(), faculty);
+        snapshot = new Snapshot(faculties);
+    }
+
+    public synchronized void remove(long id) {
+        Map<Long, FacultyDtoOut> faculties = new HashMap<>(snapshot.faculties);
+        faculties.remove(id);
+        snapshot = new Snapshot(faculties);
+    }
+
+    public List<FacultyDtoOut> search(String query) {
+        String normalized = normalize(query);
+        Snapshot current = snapshot;
+        Collection<FacultyDtoOut> candidates = normalized.length() < GRAM
+                ? current.faculties.values()
+                : current.candidates(normalized);
+        return candidates.stream()
+                .filter(faculty -> rank(faculty, normalized) < Integer.MAX_VALUE)
+                .sorted(Comparator.<FacultyDtoOut>comparingInt(faculty -> rank(faculty, normalized))
+                        .thenComparing(FacultyDtoOut::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static int rank(FacultyDtoOut faculty, String query) {
+        return Math.min(rank(faculty.getName(), query), rank(faculty.getColor(), query));
+    }
+
+    private static int rank(String value, String query) {
+        if (value == null) {
+            return Integer.MAX_VALUE;
+        }
+        String normalized = normalize(value);
+        if (normalized.equals(query)) {
+            return 0;
+        }
+        int position = normalized.indexOf(query);
+        return position < 0 ? Integer.MAX_VALUE : 1 + position;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + GRAM));
+        }
+        return trigrams;
+    }
+
+    private static class Snapshot {
+        private final Map<Long, FacultyDtoOut> faculties;
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        private Snapshot(Map<Long, FacultyDtoOut> faculties) {
+            this.faculties = Map.copyOf(faculties);
+            for (FacultyDtoOut faculty : this.faculties.values()) {
+                index(faculty.getId(), faculty.getName());
+                index(faculty.getId(), faculty.getColor());
+            }
+        }
+
+        private void index(long id, String value) {
+            if (value == null) {
+                return;
+            }
+            for (String trigram : trigrams(normalize(value))) {
+                postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+            }
+        }
+
+        private Collection<FacultyDtoOut> candidates(String query) {
+            Set<Long> ids = null;
+            for (String trigram : trigrams(query)) {
+                Set<Long> posting = postings.getOrDefault(trigram, Set.of());
+                if (ids == null) {
+                    ids = new HashSet<>(posting);
+                } else {
+                    ids.retainAll(posting);
+                }
+                if (ids.isEmpty()) {
+                    break;
+                }
+            }
+            return ids == null ? List.of() : ids.stream()
+                    .map(faculties::get)
+                    .collect(Collectors.toList());
+        }
+    }
+}
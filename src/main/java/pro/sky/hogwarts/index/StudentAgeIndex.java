@@ -0,0 +1,258 @@
+package pro.sky.hogwarts.index;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.hogwarts.invalidation.EntityType;
+import pro.sky.hogwarts.invalidation.InvalidationBus;
+import pro.sky.hogwarts.repository.StudentAgeView;
+import pro.sky.hogwarts.repository.StudentRepository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Component
+public class StudentAgeIndex {
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DebouncedTask rebuildTask;
+    private final Object rebuildLock = new Object();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Buckets buckets = new Buckets();
+    private Map<Long, Integer> pending;
+    private volatile boolean ready;
+
+    public StudentAgeIndex(StudentRepository studentRepository,
+                           TransactionTemplate transactionTemplate,
+                           InvalidationBus invalidationBus,
+                           @Value("${students.index.rebuild-delay:1000}") long rebuildDelay) {
+        this.studentRepository = studentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildTask = new DebouncedTask("student-age-index-rebuild", this::rebuild, rebuildDelay);
+        invalidationBus.subscribe(EntityType.STUDENT, id -> {
+            if (id == null) {
+                rebuildTask.request();
+            } else {
+                studentRepository.findById(id)
+                        .ifPresentOrElse(student -> put(student.getId(), student.getAge()), () -> remove(id));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildTask.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                pending = new HashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Buckets rebuilt = new Buckets();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<StudentAgeView> stream = studentRepository.streamAges()) {
+                        stream.forEach(view -> rebuilt.insert(view.getId(), view.getAge()));
+                    }
+                });
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    pending = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                pending.forEach((id, age) -> {
+                    rebuilt.delete(id);
+                    if (age != null) {
+                        rebuilt.insert(id, age);
+                    }
+                });
+                pending = null;
+                buckets = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(long id, int age) {
+        lock.writeLock().lock();
+        try {
+            buckets.delete(id);
+            buckets.insert(id, age);
+            if (pending != null) {
+                pending.put(id, age);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            buckets.delete(id);
+            if (pending != null) {
+                pending.put(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long count(int ageFrom, int ageTo) {
+        lock.readLock().lock();
+        try {
+            return buckets.count(ageFrom, ageTo);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] ids(int ageFrom, int ageTo, long after, int limit) {
+        lock.readLock().lock();
+        try {
+            return buckets.ids(ageFrom, ageTo, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static class Buckets {
+        private int[] ages = new int[0];
+        private long[][] buckets = new long[0][];
+        private int[] sizes = new int[0];
+
+        private long count(int ageFrom, int ageTo) {
+            long count = 0;
+            for (int index = firstIndex(ageFrom); index < ages.length && ages[index] <= ageTo; index++) {
+                count += sizes[index];
+            }
+            return count;
+        }
+
+        private long[] ids(int ageFrom, int ageTo, long after, int limit) {
+            long[] result = new long[0];
+            int size = 0;
+            for (int index = firstIndex(ageFrom); index < ages.length && ages[index] <= ageTo; index++) {
+                long[] bucket = buckets[index];
+                int bucketSize = sizes[index];
+                int from = firstGreaterThan(bucket, bucketSize, after);
+                int count = Math.min(bucketSize - from, limit);
+                if (count <= 0) {
+                    continue;
+                }
+                result = Arrays.copyOf(result, size + count);
+                System.arraycopy(bucket, from, result, size, count);
+                size += count;
+            }
+            Arrays.sort(result);
+            return size > limit ? Arrays.copyOf(result, limit) : result;
+        }
+
+        private void insert(long id, int age) {
+            int index = bucketIndex(age);
+            long[] bucket = buckets[index];
+            int size = sizes[index];
+            int position = Arrays.binarySearch(bucket, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == bucket.length) {
+                bucket = Arrays.copyOf(bucket, Math.max(INITIAL_BUCKET_CAPACITY, size * 2));
+                buckets[index] = bucket;
+            }
+            System.arraycopy(bucket, position, bucket, position + 1, size - position);
+            bucket[position] = id;
+            sizes[index] = size + 1;
+        }
+
+        private void delete(long id) {
+            for (int index = 0; index < ages.length; index++) {
+                int position = Arrays.binarySearch(buckets[index], 0, sizes[index], id);
+                if (position >= 0) {
+                    System.arraycopy(buckets[index], position + 1, buckets[index], position, sizes[index] - position - 1);
+                    if (--sizes[index] == 0) {
+                        removeBucket(index);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private int bucketIndex(int age) {
+            int index = Arrays.binarySearch(ages, age);
+            if (index >= 0) {
+                return index;
+            }
+            index = -index - 1;
+            ages = insertAt(ages, index, age);
+            sizes = insertAt(sizes, index, 0);
+            long[][] expandedBuckets = new long[buckets.length + 1][];
+            System.arraycopy(buckets, 0, expandedBuckets, 0, index);
+            System.arraycopy(buckets, index, expandedBuckets, index + 1, buckets.length - index);
+            expandedBuckets[index] = new long[0];
+            buckets = expandedBuckets;
+            return index;
+        }
+
+        private void removeBucket(int index) {
+            ages = removeAt(ages, index);
+            sizes = removeAt(sizes, index);
+            long[][] shrunkBuckets = new long[buckets.length - 1][];
+            System.arraycopy(buckets, 0, shrunkBuckets, 0, index);
+            System.arraycopy(buckets, index + 1, shrunkBuckets, index, buckets.length - index - 1);
+            buckets = shrunkBuckets;
+        }
+
+        private int firstIndex(int age) {
+            int index = Arrays.binarySearch(ages, age);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private static int[] insertAt(int[] array, int index, int value) {
+            int[] expanded = new int[array.length + 1];
+            System.arraycopy(array, 0, expanded, 0, index);
+            System.arraycopy(array, index, expanded, index + 1, array.length - index);
+            expanded[index] = value;
+            return expanded;
+        }
+
+        private static int[] removeAt(int[] array, int index) {
+            int[] shrunk = new int[array.length - 1];
+            System.arraycopy(array, 0, shrunk, 0, index);
+            System.arraycopy(array, index + 1, shrunk, index, array.length - index - 1);
+            return shrunk;
+        }
+
+        private static int firstGreaterThan(long[] bucket, int size, long id) {
+            int position = Arrays.binarySearch(bucket, 0, size, id);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+    }
+}
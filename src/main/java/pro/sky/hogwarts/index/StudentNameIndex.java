@@ -0,0 +1,140 @@
+package pro.sky.hogwarts.index;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.hogwarts.dto.StudentSuggestionDtoOut;
+import pro.sky.hogwarts.invalidation.EntityType;
+import pro.sky.hogwarts.invalidation.InvalidationBus;
+import pro.sky.hogwarts.repository.StudentNameView;
+import pro.sky.hogwarts.repository.StudentRepository;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class StudentNameIndex {
+    private static final char SEPARATOR = '\u0000';
+
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final DebouncedTask rebuildTask;
+    private final Object rebuildLock = new Object();
+    private Map<Long, String> pending;
+    private volatile NavigableMap<String, StudentSuggestionDtoOut> names = new ConcurrentSkipListMap<>();
+    private volatile Map<Long, String> keys = new ConcurrentHashMap<>();
+
+    public StudentNameIndex(StudentRepository studentRepository,
+                            TransactionTemplate transactionTemplate,
+                            InvalidationBus invalidationBus,
+                            @Value("${students.suggest.default-limit:10}") int defaultLimit,
+                            @Value("${students.suggest.max-limit:100}") int maxLimit,
+                            @Value("${students.index.rebuild-delay:1000}") long rebuildDelay) {
+        this.studentRepository = studentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.rebuildTask = new DebouncedTask("student-name-index-rebuild", this::rebuild, rebuildDelay);
+        invalidationBus.subscribe(EntityType.STUDENT, id -> {
+            if (id == null) {
+                rebuildTask.request();
+            } else {
+                studentRepository.findById(id)
+                        .ifPresentOrElse(student -> put(student.getId(), student.getName()), () -> remove(id));
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildTask.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new HashMap<>();
+            }
+            NavigableMap<String, StudentSuggestionDtoOut> rebuiltNames = new ConcurrentSkipListMap<>();
+            Map<Long, String> rebuiltKeys = new ConcurrentHashMap<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<StudentNameView> stream = studentRepository.streamNames()) {
+                        stream.filter(view -> view.getName() != null)
+                                .forEach(view -> put(rebuiltNames, rebuiltKeys, view.getId(), view.getName()));
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                pending.forEach((id, name) -> put(rebuiltNames, rebuiltKeys, id, name));
+                pending = null;
+                names = rebuiltNames;
+                keys = rebuiltKeys;
+            }
+        }
+    }
+
+    public synchronized void put(long id, String name) {
+        put(names, keys, id, name);
+        if (pending != null) {
+            pending.put(id, name);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        put(id, null);
+    }
+
+    private static void put(NavigableMap<String, StudentSuggestionDtoOut> names, Map<Long, String> keys,
+                            long id, String name) {
+        String oldKey = keys.remove(id);
+        if (oldKey != null) {
+            names.remove(oldKey);
+        }
+        if (name == null) {
+            return;
+        }
+        String key = key(id, name);
+        names.put(key, new StudentSuggestionDtoOut(id, name));
+        keys.put(id, key);
+    }
+
+    public List<StudentSuggestionDtoOut> suggest(String prefix, Integer limit) {
+        String folded = fold(prefix);
+        int size = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+        return names.subMap(folded, true, folded + Character.MAX_VALUE, false)
+                .values()
+                .stream()
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    private static String key(long id, String name) {
+        return fold(name) + SEPARATOR + String.format("%019d", id);
+    }
+
+    private static String fold(String value) {
+        return Normalizer.normalize(value.strip(), Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replace('ё', 'е');
+    }
+}
@@ -0,0 +1,6 @@
+package pro.sky.hogwarts.invalidation;
+
+public enum EntityType {
+    FACULTY,
+    STUDENT
+}
@@ -0,0 +1,137 @@
+package pro.sky.hogwarts.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class InvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+    private static final String ALL = "*";
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private final InvalidationChannel channel;
+    private final int maxEventsPerType;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<EntityType, List<InvalidationListener>> listeners = new EnumMap<>(EntityType.class);
+    private final Map<EntityType, Set<Long>> pending = new EnumMap<>(EntityType.class);
+    private final Set<EntityType> pendingAll = new HashSet<>();
+
+    public InvalidationBus(InvalidationChannel channel, int maxEventsPerType) {
+        this.channel = channel;
+        this.maxEventsPerType = maxEventsPerType;
+        for (EntityType type : EntityType.values()) {
+            listeners.put(type, new CopyOnWriteArrayList<>());
+            pending.put(type, new HashSet<>());
+        }
+        channel.subscribe(this::receive);
+        channel.onConnect(this::invalidateAll);
+    }
+
+    public void subscribe(EntityType type, InvalidationListener listener) {
+        listeners.get(type).add(listener);
+    }
+
+    public void publish(EntityType type, long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(type, id);
+                }
+            });
+        } else {
+            enqueue(type, id);
+        }
+    }
+
+    private synchronized void enqueue(EntityType type, long id) {
+        if (pendingAll.contains(type)) {
+            return;
+        }
+        Set<Long> ids = pending.get(type);
+        ids.add(id);
+        if (ids.size() > maxEventsPerType) {
+            ids.clear();
+            pendingAll.add(type);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.flush-interval:200}")
+    public void flush() {
+        List<String> events = new ArrayList<>();
+        synchronized (this) {
+            for (EntityType type : EntityType.values()) {
+                if (pendingAll.contains(type)) {
+                    events.add(type.name() + ":" + ALL);
+                } else {
+                    pending.get(type).forEach(id -> events.add(type.name() + ":" + id));
+                }
+                pending.get(type).clear();
+            }
+            pendingAll.clear();
+        }
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (String event : events) {
+            if (payload.length() + event.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                send(payload.toString());
+                payload = new StringBuilder(nodeId);
+            }
+            payload.append('|').append(event);
+        }
+        if (payload.length() > nodeId.length()) {
+            send(payload.toString());
+        }
+    }
+
+    private void send(String payload) {
+        try {
+            channel.publish(payload);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось отправить событие инвалидации", e);
+        }
+    }
+
+    private void receive(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        for (int i = 1; i < parts.length; i++) {
+            String[] event = parts[i].split(":", 2);
+            try {
+                EntityType type = EntityType.valueOf(event[0]);
+                Long id = ALL.equals(event[1]) ? null : Long.valueOf(event[1]);
+                notify(type, id);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                log.warn("Некорректное событие инвалидации: {}", parts[i]);
+            }
+        }
+    }
+
+    private void invalidateAll() {
+        for (EntityType type : EntityType.values()) {
+            notify(type, null);
+        }
+    }
+
+    private void notify(EntityType type, Long id) {
+        for (InvalidationListener listener : listeners.get(type)) {
+            try {
+                listener.invalidate(id);
+            } catch (RuntimeException e) {
+                log.warn("Ошибка обработки события инвалидации {}:{}", type, id == null ? ALL : id, e);
+            }
+        }
+    }
+}
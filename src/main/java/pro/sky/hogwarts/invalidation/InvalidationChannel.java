@@ -0,0 +1,13 @@
+package pro.sky.hogwarts.invalidation;
+
+import java.util.function.Consumer;
+
+public interface InvalidationChannel {
+
+    void publish(String payload);
+
+    void subscribe(Consumer<String> consumer);
+
+    default void onConnect(Runnable callback) {
+    }
+}
@@ -0,0 +1,30 @@
+package pro.sky.hogwarts.invalidation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class InvalidationConfig {
+
+    @Bean
+    public InvalidationChannel invalidationChannel(@Value("${invalidation.channel:postgres}") String channel,
+                                                   @Value("${invalidation.postgres.channel:hogwarts_invalidation}") String name,
+                                                   DataSource dataSource,
+                                                   DataSourceProperties dataSourceProperties) {
+        return switch (channel) {
+            case "postgres" -> new PostgresInvalidationChannel(dataSource, dataSourceProperties, name);
+            case "local" -> new LocalInvalidationChannel();
+            default -> throw new IllegalStateException("Неизвестный канал инвалидации: " + channel);
+        };
+    }
+
+    @Bean
+    public InvalidationBus invalidationBus(InvalidationChannel invalidationChannel,
+                                           @Value("${invalidation.max-events-per-type:500}") int maxEventsPerType) {
+        return new InvalidationBus(invalidationChannel, maxEventsPerType);
+    }
+}
@@ -0,0 +1,9 @@
+package pro.sky.hogwarts.invalidation;
+
+import io.micrometer.common.lang.Nullable;
+
+@FunctionalInterface
+public interface InvalidationListener {
+
+    void invalidate(@Nullable Long id);
+}
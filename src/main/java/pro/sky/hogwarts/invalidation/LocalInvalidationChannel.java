@@ -0,0 +1,19 @@
+package pro.sky.hogwarts.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+public class LocalInvalidationChannel implements InvalidationChannel {
+    private final List<Consumer<String>> consumers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String payload) {
+        consumers.forEach(consumer -> consumer.accept(payload));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> consumer) {
+        consumers.add(consumer);
+    }
+}
@@ -0,0 +1,106 @@
+package pro.sky.hogwarts.invalidation;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+public class PostgresInvalidationChannel implements InvalidationChannel {
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationChannel.class);
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final List<Consumer<String>> consumers = new CopyOnWriteArrayList<>();
+    private final List<Runnable> connectCallbacks = new CopyOnWriteArrayList<>();
+    private final Thread listener;
+    private volatile boolean running = true;
+
+    public PostgresInvalidationChannel(DataSource dataSource, DataSourceProperties dataSourceProperties, String channel) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.url = dataSourceProperties.determineUrl();
+        this.username = dataSourceProperties.determineUsername();
+        this.password = dataSourceProperties.determinePassword();
+        this.channel = channel;
+        this.listener = new Thread(this::listen, "invalidation-listener");
+        this.listener.setDaemon(true);
+        this.listener.start();
+    }
+
+    @Override
+    public void publish(String payload) {
+        jdbcTemplate.queryForObject("select pg_notify(?, ?)", Object.class, channel, payload);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> consumer) {
+        consumers.add(consumer);
+    }
+
+    @Override
+    public void onConnect(Runnable callback) {
+        connectCallbacks.add(callback);
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        listener.interrupt();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                connectCallbacks.forEach(this::run);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        consumers.forEach(consumer -> run(() -> consumer.accept(notification.getParameter())));
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Потеряно соединение для LISTEN {}, переподключение", channel, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void run(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.warn("Ошибка обработки уведомления {}", channel, e);
+        }
+    }
+}
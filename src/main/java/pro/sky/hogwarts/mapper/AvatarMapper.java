@@ -0,0 +1,29 @@
+package pro.sky.hogwarts.mapper;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pro.sky.hogwarts.dto.AvatarDtoOut;
+import pro.sky.hogwarts.repository.AvatarView;
+
+@Component
+public class AvatarMapper {
+    private final String baseUrl;
+
+    public AvatarMapper(@Value("${avatar.base-url:http://localhost:8082}") String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public AvatarDtoOut toDto(AvatarView avatarView) {
+        AvatarDtoOut avatarDtoOut = new AvatarDtoOut();
+        avatarDtoOut.setId(avatarView.getId());
+        avatarDtoOut.setStudentId(avatarView.getStudentId());
+        avatarDtoOut.setMediaType(avatarView.getMediaType());
+        avatarDtoOut.setSize(avatarView.getFileSize());
+        avatarDtoOut.setUrl(toUrl(avatarView.getId()));
+        return avatarDtoOut;
+    }
+
+    public String toUrl(long id) {
+        return baseUrl + "/avatars/" + id + "/from-db";
+    }
+}
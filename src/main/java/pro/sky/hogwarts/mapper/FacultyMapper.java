@@ -13,6 +13,7 @@ public class FacultyMapper {
         facultyDtoOut.setId(faculty.getId());
         facultyDtoOut.setName(faculty.getName());
         facultyDtoOut.setColor(faculty.getColor());
+        facultyDtoOut.setVersion(faculty.getVersion());
         return facultyDtoOut;
     }
 
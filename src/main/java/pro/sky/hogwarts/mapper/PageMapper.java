@@ -0,0 +1,97 @@
+package pro.sky.hogwarts.mapper;
+
+import io.micrometer.common.lang.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import pro.sky.hogwarts.dto.BatchDtoOut;
+import pro.sky.hogwarts.dto.PageDtoOut;
+import pro.sky.hogwarts.exception.InvalidCursorException;
+import pro.sky.hogwarts.exception.TooManyIdsException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+@Component
+public class PageMapper {
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PageMapper(@Value("${page.default-size:50}") int defaultSize,
+                      @Value("${page.max-size:500}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public long after(@Nullable String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    public int size(@Nullable Integer size) {
+        if (size == null || size <= 0) {
+            return defaultSize;
+        }
+        return Math.min(size, maxSize);
+    }
+
+    public List<Long> ids(List<Long> ids) {
+        if (ids.size() > maxSize) {
+            throw new TooManyIdsException(ids.size(), maxSize);
+        }
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    public Pageable limit(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    public <E, D> PageDtoOut<D> toDto(List<E> entities, int size, ToLongFunction<E> id, Function<E, D> mapper) {
+        String nextCursor = null;
+        if (entities.size() > size) {
+            entities = entities.subList(0, size);
+            nextCursor = encode(id.applyAsLong(entities.get(size - 1)));
+        }
+        return new PageDtoOut<>(
+                entities.stream()
+                        .map(mapper)
+                        .collect(Collectors.toList()),
+                nextCursor);
+    }
+
+    public <E, D> BatchDtoOut<D> toBatch(List<Long> ids, List<E> entities, ToLongFunction<E> id, Function<E, D> mapper) {
+        Map<Long, E> byId = entities.stream()
+                .collect(Collectors.toMap(id::applyAsLong, Function.identity()));
+        List<D> items = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long key : ids) {
+            Optional.ofNullable(byId.get(key))
+                    .map(mapper)
+                    .ifPresentOrElse(items::add, () -> missingIds.add(key));
+        }
+        return new BatchDtoOut<>(items, missingIds);
+    }
+
+    private String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+}
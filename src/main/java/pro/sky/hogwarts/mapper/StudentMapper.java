@@ -3,9 +3,11 @@ package pro.sky.hogwarts.mapper;
 import org.springframework.stereotype.Component;
 import pro.sky.hogwarts.dto.StudentDtoIn;
 import pro.sky.hogwarts.dto.StudentDtoOut;
+import pro.sky.hogwarts.entity.Avatar;
 import pro.sky.hogwarts.entity.Student;
 import pro.sky.hogwarts.exception.FacultyNotFoundException;
 import pro.sky.hogwarts.repository.FacultyRepository;
+import pro.sky.hogwarts.repository.StudentAvatarView;
 
 import java.util.Optional;
 
@@ -14,10 +16,13 @@ public class StudentMapper {
 
     private final FacultyMapper facultyMapper;
     private final FacultyRepository facultyRepository;
+    private final AvatarMapper avatarMapper;
 
-    public StudentMapper(FacultyMapper facultyMapper, FacultyRepository facultyRepository) {
+    public StudentMapper(FacultyMapper facultyMapper, FacultyRepository facultyRepository,
+                         AvatarMapper avatarMapper) {
         this.facultyMapper = facultyMapper;
         this.facultyRepository = facultyRepository;
+        this.avatarMapper = avatarMapper;
     }
 
 
@@ -26,19 +31,41 @@ public class StudentMapper {
         studentDtoOut.setId(student.getId());
         studentDtoOut.setName(student.getName());
         studentDtoOut.setAge(student.getAge());
+        studentDtoOut.setVersion(student.getVersion());
         Optional.ofNullable(student.getFaculty())
                 .ifPresent(faculty -> studentDtoOut.setFaculty((facultyMapper.toDto(faculty))));
         return studentDtoOut;
     }
 
+    public StudentDtoOut toDto(StudentAvatarView studentAvatarView) {
+        StudentDtoOut studentDtoOut = toDto(studentAvatarView.getStudent());
+        Optional.ofNullable(studentAvatarView.getAvatarId())
+                .ifPresent(avatarId -> setAvatar(studentDtoOut, avatarId,
+                        studentAvatarView.getAvatarMediaType(), studentAvatarView.getAvatarSize()));
+        return studentDtoOut;
+    }
+
+    public StudentDtoOut toDto(Student student, Avatar avatar) {
+        StudentDtoOut studentDtoOut = toDto(student);
+        setAvatar(studentDtoOut, avatar.getId(), avatar.getMediaType(), avatar.getFileSize());
+        return studentDtoOut;
+    }
+
+    private void setAvatar(StudentDtoOut studentDtoOut, long avatarId, String mediaType, Long size) {
+        studentDtoOut.setAvatarId(avatarId);
+        studentDtoOut.setAvatarMediaType(mediaType);
+        studentDtoOut.setAvatarSize(size);
+        studentDtoOut.setAvatarUrl(avatarMapper.toUrl(avatarId));
+    }
+
     public Student toEntity(StudentDtoIn studentDtoIn) {
         Student student = new Student();
         student.setAge(studentDtoIn.getAge());
         student.setName(studentDtoIn.getName());
         Optional.ofNullable(studentDtoIn.getFacultyId())
                 .ifPresent(facultyId ->
-                        facultyRepository.findById(facultyId)
-                                .orElseThrow(() -> new FacultyNotFoundException(facultyId))
+                        student.setFaculty(facultyRepository.findById(facultyId)
+                                .orElseThrow(() -> new FacultyNotFoundException(facultyId)))
                 );
         return student;
     }
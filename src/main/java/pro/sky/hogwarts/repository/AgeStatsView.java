@@ -0,0 +1,8 @@
+package pro.sky.hogwarts.repository;
+
+public interface AgeStatsView {
+    long getCount();
+    Double getAverageAge();
+    Integer getMinAge();
+    Integer getMaxAge();
+}
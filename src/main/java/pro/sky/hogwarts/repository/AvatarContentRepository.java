@@ -0,0 +1,11 @@
+package pro.sky.hogwarts.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import pro.sky.hogwarts.entity.AvatarContent;
+
+public interface AvatarContentRepository extends JpaRepository<AvatarContent, String> {
+
+    @Query(value = "select 1 from pg_advisory_xact_lock(hashtext(:hash))", nativeQuery = true)
+    Integer lock(String hash);
+}
@@ -1,11 +1,22 @@
 package pro.sky.hogwarts.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import pro.sky.hogwarts.entity.Avatar;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AvatarRepository extends JpaRepository<Avatar, Long> {
 
     Optional<Avatar> findByStudent_Id(long StudentId);
+
+    List<Avatar> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    long countByChecksum(String checksum);
+
+    @Query("select a.id as id, a.student.id as studentId, a.mediaType as mediaType, a.fileSize as fileSize " +
+            "from Avatar a where a.id > :id order by a.id")
+    List<AvatarView> findViewsByIdGreaterThan(long id, Pageable pageable);
 }
@@ -0,0 +1,8 @@
+package pro.sky.hogwarts.repository;
+
+public interface AvatarView {
+    Long getId();
+    Long getStudentId();
+    String getMediaType();
+    long getFileSize();
+}
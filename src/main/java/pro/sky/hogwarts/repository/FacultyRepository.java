@@ -1,11 +1,32 @@
 package pro.sky.hogwarts.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import pro.sky.hogwarts.entity.Faculty;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
-    List<Faculty> findAllByColor(String color);
-    List<Faculty> findByColorContainingIgnoreCaseOrNameContainingIgnoreCase(String color, String name);
+    List<Faculty> findAllByColorOrderByIdAsc(String color);
+
+    @Query("select f.studentCount from Faculty f where f.id = :id")
+    Optional<Long> findStudentCountById(long id);
+
+    @Modifying
+    @Query("update Faculty f set f.studentCount = f.studentCount + :delta where f.id = :id")
+    int addStudentCount(long id, long delta);
+
+    @Query(value = "with updated as (update faculties set name = :name, color = :color, version = version + 1 " +
+            "where id = :id and (:version < 0 or version = :version) returning id, name, color, version) " +
+            "select id, name, color, version from updated",
+            nativeQuery = true)
+    Optional<FacultyWriteView> updateVersioned(long id, String name, String color, long version);
+
+    @Query(value = "with deleted as (delete from faculties where id = :id and (:version < 0 or version = :version) " +
+            "returning id, name, color, version) " +
+            "select id, name, color, version from deleted",
+            nativeQuery = true)
+    Optional<FacultyWriteView> deleteVersioned(long id, long version);
 }
@@ -0,0 +1,7 @@
+package pro.sky.hogwarts.repository;
+
+public interface FacultyStudentCountView {
+    Long getFacultyId();
+    String getName();
+    long getCount();
+}
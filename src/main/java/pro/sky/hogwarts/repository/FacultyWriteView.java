@@ -0,0 +1,8 @@
+package pro.sky.hogwarts.repository;
+
+public interface FacultyWriteView {
+    Long getId();
+    String getName();
+    String getColor();
+    long getVersion();
+}
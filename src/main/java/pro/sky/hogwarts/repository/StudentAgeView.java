@@ -0,0 +1,6 @@
+package pro.sky.hogwarts.repository;
+
+public interface StudentAgeView {
+    Long getId();
+    int getAge();
+}
@@ -0,0 +1,10 @@
+package pro.sky.hogwarts.repository;
+
+import pro.sky.hogwarts.entity.Student;
+
+public interface StudentAvatarView {
+    Student getStudent();
+    Long getAvatarId();
+    String getAvatarMediaType();
+    Long getAvatarSize();
+}
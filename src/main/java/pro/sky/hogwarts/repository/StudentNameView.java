@@ -0,0 +1,6 @@
+package pro.sky.hogwarts.repository;
+
+public interface StudentNameView {
+    Long getId();
+    String getName();
+}
@@ -1,12 +1,126 @@
 package pro.sky.hogwarts.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import pro.sky.hogwarts.entity.Student;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface StudentRepository extends JpaRepository<Student, Long> {
-    List<Student> findAllByAge(int age);
-    List<Student> findByAgeBetween(int ageFrom, int ageTo);
-    List<Student> findAllByFaculty_Id(long facultyId);
+    String WITH_AVATAR = "select s as student, a.id as avatarId, a.mediaType as avatarMediaType, a.fileSize as avatarSize " +
+            "from Student s left join fetch s.faculty left join Avatar a on a.student = s ";
+
+    @Override
+    @EntityGraph(attributePaths = "faculty")
+    Optional<Student> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "faculty")
+    List<Student> findAllById(Iterable<Long> ids);
+
+    long countByAgeBetween(int ageFrom, int ageTo);
+
+    @Query(WITH_AVATAR + "where s.id = :id")
+    Optional<StudentAvatarView> findWithAvatarById(long id);
+
+    @Query(WITH_AVATAR + "where s.id in :ids order by s.id")
+    List<StudentAvatarView> findWithAvatarByIdIn(Collection<Long> ids);
+
+    @Query(WITH_AVATAR + "where s.id > :id order by s.id")
+    List<StudentAvatarView> findWithAvatarByIdGreaterThan(long id, Pageable pageable);
+
+    @Query(WITH_AVATAR + "where s.age between :ageFrom and :ageTo and s.id > :id order by s.id")
+    List<StudentAvatarView> findWithAvatarByAgeBetween(int ageFrom, int ageTo, long id, Pageable pageable);
+
+    @Query(WITH_AVATAR + "where s.faculty.id = :facultyId and s.id > :id order by s.id")
+    List<StudentAvatarView> findWithAvatarByFacultyId(long facultyId, long id, Pageable pageable);
+
+    @Query("select count(s) as count, avg(s.age) as averageAge, min(s.age) as minAge, max(s.age) as maxAge from Student s")
+    AgeStatsView findAgeStats();
+
+    @Query("select count(s) as count, avg(s.age) as averageAge, min(s.age) as minAge, max(s.age) as maxAge " +
+            "from Student s where s.faculty.id = :facultyId")
+    AgeStatsView findAgeStatsByFaculty_Id(long facultyId);
+
+    @Query("select f.id as facultyId, f.name as name, count(s) as count " +
+            "from Faculty f left join f.students s group by f.id, f.name order by f.id")
+    List<FacultyStudentCountView> countByFaculty();
+
+    @EntityGraph(attributePaths = "faculty")
+    List<Student> findAllByOrderByAgeAscIdAsc(Pageable pageable);
+
+    @EntityGraph(attributePaths = "faculty")
+    List<Student> findAllByOrderByAgeDescIdAsc(Pageable pageable);
+
+    @Query("select s.id as id, s.name as name, s.age as age from Student s " +
+            "where s.faculty.id = :facultyId and s.id > :id order by s.id")
+    List<StudentSlimView> findSlimByFacultyId(long facultyId, long id, Pageable pageable);
+
+    @Query(value = "with old as (select id, faculty_id from students where id = :id for update), " +
+            "updated as (update students s set name = :name, age = :age, " +
+            "faculty_id = coalesce(cast(:facultyId as bigint), old.faculty_id), version = s.version + 1 " +
+            "from old where s.id = old.id and (:version < 0 or s.version = :version) " +
+            "returning s.id, s.name, s.age, s.faculty_id, s.version, old.faculty_id as old_faculty_id), " +
+            "left_faculty as (update faculties f set student_count = f.student_count - 1 from updated u " +
+            "where f.id = u.old_faculty_id and u.faculty_id is distinct from u.old_faculty_id), " +
+            "joined_faculty as (update faculties f set student_count = f.student_count + 1 from updated u " +
+            "where f.id = u.faculty_id and u.faculty_id is distinct from u.old_faculty_id) " +
+            "select id, name, age, faculty_id as facultyId, version from updated",
+            nativeQuery = true)
+    Optional<StudentWriteView> updateVersioned(long id, String name, int age, Long facultyId, long version);
+
+    @Query(value = "with deleted as (delete from students where id = :id and (:version < 0 or version = :version) " +
+            "returning id, name, age, faculty_id, version), " +
+            "left_faculty as (update faculties f set student_count = f.student_count - 1 from deleted d " +
+            "where f.id = d.faculty_id) " +
+            "select id, name, age, faculty_id as facultyId, version from deleted",
+            nativeQuery = true)
+    Optional<StudentWriteView> deleteVersioned(long id, long version);
+
+    @Query("select f.id from Student s left join s.faculty f where s.id = :id")
+    Optional<Long> findFacultyIdById(long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select s from Student s left join fetch s.faculty order by s.id")
+    Stream<Student> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s.id as id, s.name as name from Student s")
+    Stream<StudentNameView> streamNames();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s.id as id, s.age as age from Student s order by s.id")
+    Stream<StudentAgeView> streamAges();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s.id as id, s.age as age, f.id as facultyId from Student s left join s.faculty f")
+    Stream<StudentStatsView> streamStats();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s.id as id, s.age as age from Student s where s.faculty.id = :facultyId")
+    Stream<StudentAgeView> streamAgesByFacultyId(long facultyId);
 }
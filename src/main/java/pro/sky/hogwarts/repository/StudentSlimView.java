@@ -0,0 +1,7 @@
+package pro.sky.hogwarts.repository;
+
+public interface StudentSlimView {
+    Long getId();
+    String getName();
+    int getAge();
+}
@@ -0,0 +1,7 @@
+package pro.sky.hogwarts.repository;
+
+public interface StudentStatsView {
+    Long getId();
+    int getAge();
+    Long getFacultyId();
+}
@@ -0,0 +1,9 @@
+package pro.sky.hogwarts.repository;
+
+public interface StudentWriteView {
+    Long getId();
+    String getName();
+    int getAge();
+    Long getFacultyId();
+    long getVersion();
+}
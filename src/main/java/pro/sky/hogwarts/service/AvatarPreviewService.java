@@ -0,0 +1,178 @@
+package pro.sky.hogwarts.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import pro.sky.hogwarts.exception.AvatarProcessingException;
+import pro.sky.hogwarts.exception.AvatarTooLargeException;
+import pro.sky.hogwarts.exception.UnsupportedAvatarFormatException;
+import pro.sky.hogwarts.storage.AvatarStorage;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class AvatarPreviewService {
+    private static final Logger log = LoggerFactory.getLogger(AvatarPreviewService.class);
+
+    private final AvatarStorage avatarStorage;
+    private final Path pathToPreviewDir;
+    private final List<Integer> sizes;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+
+    public AvatarPreviewService(AvatarStorage avatarStorage,
+                                @Value("${path.to.avatar.dir}") String pathToAvatarDir,
+                                @Value("${avatar.preview.sizes:64,256}") List<Integer> sizes,
+                                @Value("${avatar.preview.threads:2}") int threads,
+                                @Value("${avatar.preview.queue-capacity:100}") int queueCapacity,
+                                @Value("${avatar.preview.max-pixels:40000000}") long maxPixels) {
+        this.avatarStorage = avatarStorage;
+        this.pathToPreviewDir = Path.of(pathToAvatarDir).resolve("previews");
+        this.sizes = sizes.stream().sorted().toList();
+        this.maxPixels = maxPixels;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void schedule(String hash) {
+        executor.execute(() -> {
+            try {
+                generate(hash);
+            } catch (RuntimeException e) {
+                log.warn("Не удалось построить превью для аватара {}", hash, e);
+            }
+        });
+    }
+
+    public Resource get(String hash, int size) {
+        int previewSize = previewSize(size);
+        Path path = resolve(hash, previewSize);
+        if (!Files.exists(path)) {
+            generate(hash);
+        }
+        return new FileSystemResource(path);
+    }
+
+    public void delete(String hash) {
+        try {
+            for (int size : sizes) {
+                Files.deleteIfExists(resolve(hash, size));
+            }
+        } catch (IOException e) {
+            throw new AvatarProcessingException();
+        }
+    }
+
+    public int previewSize(int size) {
+        return sizes.stream()
+                .filter(previewSize -> previewSize >= size)
+                .findFirst()
+                .orElse(sizes.get(sizes.size() - 1));
+    }
+
+    private void generate(String hash) {
+        BufferedImage original = readOriginal(hash);
+        for (int size : sizes) {
+            Path path = resolve(hash, size);
+            if (!Files.exists(path)) {
+                write(scale(original, size), path);
+            }
+        }
+    }
+
+    private BufferedImage readOriginal(String hash) {
+        Resource resource = avatarStorage.load(hash)
+                .orElseThrow(AvatarProcessingException::new);
+        try (InputStream in = resource.getInputStream();
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = imageIn == null
+                    ? Collections.emptyIterator()
+                    : ImageIO.getImageReaders(imageIn);
+            if (!readers.hasNext()) {
+                throw new UnsupportedAvatarFormatException(hash);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new AvatarTooLargeException(hash, width, height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / sizes.get(sizes.size() - 1));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new AvatarProcessingException();
+        }
+    }
+
+    private BufferedImage scale(BufferedImage original, int size) {
+        double ratio = Math.min(1.0, (double) size / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * ratio));
+        BufferedImage preview = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = preview.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return preview;
+    }
+
+    private void write(BufferedImage preview, Path path) {
+        try {
+            Files.createDirectories(path.getParent());
+            Path tempFile = Files.createTempFile(path.getParent(), "preview-", ".tmp");
+            try {
+                ImageIO.write(preview, "png", tempFile.toFile());
+                Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new AvatarProcessingException();
+        }
+    }
+
+    private Path resolve(String hash, int size) {
+        return pathToPreviewDir
+                .resolve(String.valueOf(size))
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash + ".png");
+    }
+}
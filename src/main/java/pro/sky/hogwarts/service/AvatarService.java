@@ -1,122 +1,229 @@
 package pro.sky.hogwarts.service;
 
+import io.micrometer.common.lang.Nullable;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.util.Pair;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import pro.sky.hogwarts.cache.AvatarCache;
+import pro.sky.hogwarts.dto.AvatarDtoOut;
+import pro.sky.hogwarts.dto.PageDtoOut;
 import pro.sky.hogwarts.entity.Avatar;
 import pro.sky.hogwarts.entity.Student;
 import pro.sky.hogwarts.exception.AvatarNotFoundException;
 import pro.sky.hogwarts.exception.AvatarProcessingException;
+import pro.sky.hogwarts.mapper.AvatarMapper;
+import pro.sky.hogwarts.mapper.PageMapper;
+import pro.sky.hogwarts.repository.AvatarContentRepository;
 import pro.sky.hogwarts.repository.AvatarRepository;
+import pro.sky.hogwarts.repository.AvatarView;
+import pro.sky.hogwarts.storage.AvatarStorage;
+import pro.sky.hogwarts.storage.DbAvatarStorage;
+import pro.sky.hogwarts.storage.FsAvatarStorage;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.UUID;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class AvatarService {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
     private final AvatarRepository avatarRepository;
+    private final AvatarContentRepository avatarContentRepository;
+    private final AvatarStorage avatarStorage;
+    private final DbAvatarStorage dbAvatarStorage;
+    private final FsAvatarStorage fsAvatarStorage;
+    private final AvatarPreviewService avatarPreviewService;
+    private final AvatarCache avatarCache;
+    private final AvatarMapper avatarMapper;
+    private final PageMapper pageMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Lock[] locks;
     private final Path pathToAvatarDir;
 
     public AvatarService(AvatarRepository avatarRepository,
-                         @Value("./avatars") String pathToAvatarDir) {
-        //@Value("${path.to.avatar.dir}") String pathToAvatarDir) {
+                         AvatarContentRepository avatarContentRepository,
+                         AvatarStorage avatarStorage,
+                         DbAvatarStorage dbAvatarStorage,
+                         FsAvatarStorage fsAvatarStorage,
+                         AvatarPreviewService avatarPreviewService,
+                         AvatarCache avatarCache,
+                         AvatarMapper avatarMapper,
+                         PageMapper pageMapper,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${avatar.upload.lock-stripes:64}") int lockStripes,
+                         @Value("${path.to.avatar.dir}") String pathToAvatarDir) {
         this.avatarRepository = avatarRepository;
+        this.avatarContentRepository = avatarContentRepository;
+        this.avatarStorage = avatarStorage;
+        this.dbAvatarStorage = dbAvatarStorage;
+        this.fsAvatarStorage = fsAvatarStorage;
+        this.avatarPreviewService = avatarPreviewService;
+        this.avatarCache = avatarCache;
+        this.avatarMapper = avatarMapper;
+        this.pageMapper = pageMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.locks = new Lock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
         this.pathToAvatarDir = Path.of(pathToAvatarDir);
     }
 
-        public Avatar create(Student student, MultipartFile multipartFile) {
+    public Avatar create(Student student, MultipartFile multipartFile) {
+        Path tempFile = null;
         try {
-            String contentType = multipartFile.getContentType();
-            String extension = StringUtils.getFilenameExtension(multipartFile.getOriginalFilename());
-            byte[] data = multipartFile.getBytes();
-            String fileName = UUID.randomUUID() + "." + extension;
-            Path pathToAvatar = pathToAvatarDir.resolve(fileName);
-            writeToFile(pathToAvatar, data);
-//           Files.write(pathToAvatar, data);
-
-            Avatar avatar = avatarRepository.findByStudent_Id(student.getId())
-                    .orElse(new Avatar());
-
-            if (avatar.getFilePath() != null) {
-                Files.delete(Path.of(avatar.getFilePath()));
+            Files.createDirectories(pathToAvatarDir);
+            tempFile = Files.createTempFile(pathToAvatarDir, "upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long fileSize = writeToFile(multipartFile.getInputStream(), tempFile, digest);
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            Lock lock = locks[Math.floorMod(Long.hashCode(student.getId()), locks.length)];
+            lock.lock();
+            try {
+                Upload upload = save(student, multipartFile.getContentType(), fileSize, hash, tempFile);
+                if (upload.oldHash != null && !upload.oldHash.equals(hash)) {
+                    avatarCache.evict(upload.oldHash);
+                    deleteIfUnused(upload.oldHash);
+                }
+                avatarPreviewService.schedule(hash);
+                return upload.avatar;
+            } finally {
+                lock.unlock();
             }
-            avatar.setMediaType(contentType);
-            avatar.setFileSize(data.length);
-            avatar.setData(data);
-            avatar.setStudent(student);
-            avatar.setFilePath(pathToAvatar.toString());
-            return avatarRepository.save(avatar);
-        } catch (IOException e) {
+        } catch (IOException | NoSuchAlgorithmException e) {
             throw new AvatarProcessingException();
+        } finally {
+            deleteQuietly(tempFile);
         }
     }
-//    public Avatar create(Student student, MultipartFile multipartFile) {
-//        try {
-//            String contentType = multipartFile.getContentType();
-//            String extension = StringUtils.getFilenameExtension(multipartFile.getOriginalFilename());
-//            byte[] data = multipartFile.getBytes();
-//            String fileName = UUID.randomUUID() + "." + extension;
-//            Path pathToAvatar = pathToAvatarDir.resolve(fileName);
-//            Files.write(pathToAvatar, data);
-//
-//            Avatar avatar = avatarRepository.findByStudent_Id(student.getId())
-//                    .orElse(new Avatar());
-//            avatar.setMediaType(contentType);
-//            avatar.setFileSize(data.length);
-//            avatar.setData(data);
-//            avatar.setStudent(student);
-//            avatar.setFilePath(pathToAvatar.toString());
-//            return avatarRepository.save(avatar);
-//        } catch (IOException e) {
-//            throw new AvatarProcessingException();
-//        }
-//    }
-
-    private void writeToFile(Path path, byte[] data) {
-        try (FileOutputStream fileOutputStream = new FileOutputStream(path.toFile())) {
-            fileOutputStream.write((data));
-        } catch (IOException e) {
-            throw new AvatarProcessingException();
+
+    private Upload save(Student student, String mediaType, long fileSize, String hash, Path file) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    avatarContentRepository.lock(hash);
+                    if (!avatarStorage.exists(hash)) {
+                        avatarStorage.save(hash, file);
+                    }
+                    Avatar avatar = avatarRepository.findByStudent_Id(student.getId())
+                            .orElse(new Avatar());
+                    String oldHash = avatar.getChecksum();
+                    avatar.setMediaType(mediaType);
+                    avatar.setFileSize(fileSize);
+                    avatar.setChecksum(hash);
+                    avatar.setLastModified(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+                    avatar.setStudent(student);
+                    return new Upload(avatarRepository.saveAndFlush(avatar), oldHash);
+                });
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_SAVE_ATTEMPTS) {
+                    throw e;
+                }
+            }
         }
     }
 
-    public Pair<byte[], String> getFromDb(long id) {
-        Avatar avatar = avatarRepository.findById(id)
-                .orElseThrow(() -> new AvatarNotFoundException(id));
-        return Pair.of(avatar.getData(), avatar.getMediaType());
+    private void deleteIfUnused(String hash) {
+        transactionTemplate.executeWithoutResult(status -> {
+            avatarContentRepository.lock(hash);
+            if (avatarRepository.countByChecksum(hash) == 0) {
+                avatarStorage.delete(hash);
+                avatarPreviewService.delete(hash);
+            }
+        });
+    }
+
+    private long writeToFile(InputStream inputStream, Path path, MessageDigest digest) throws IOException {
+        try (InputStream in = new DigestInputStream(inputStream, digest);
+             OutputStream out = Files.newOutputStream(path)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                size += read;
+            }
+            return size;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
     }
 
-    public Pair<byte[], String> getFromFs(long id) {
-        Avatar avatar = avatarRepository.findById(id)
+    public Avatar get(long id) {
+        return avatarRepository.findById(id)
                 .orElseThrow(() -> new AvatarNotFoundException(id));
-        return Pair.of(read(Path.of(avatar.getFilePath())), avatar.getMediaType());
     }
 
-//    public Pair<byte[], String> getFromFs(long id) {
-//        try {
-//            Avatar avatar = avatarRepository.findById(id)
-//                    .orElseThrow(() -> new AvatarNotFoundException(id));
-//            return Pair.of(
-//                    Files.readAllBytes(Path.of(avatar.getFilePath())), avatar.getMediaType()
-//            );
-//        } catch (IOException e) {
-//            throw new AvatarProcessingException();
-//        }
-//    }
-
-    private byte[] read(Path path) {
-        try (FileInputStream fileInputStream = new FileInputStream(path.toFile())) {
-            return fileInputStream.readAllBytes();
-        } catch (IOException e) {
-            throw new AvatarProcessingException();
+    public PageDtoOut<AvatarDtoOut> findAll(@Nullable String cursor, @Nullable Integer size) {
+        long after = pageMapper.after(cursor);
+        int limit = pageMapper.size(size);
+        return pageMapper.toDto(
+                avatarRepository.findViewsByIdGreaterThan(after, pageMapper.limit(limit)),
+                limit, AvatarView::getId, avatarMapper::toDto);
+    }
+
+    public Resource getFromDb(Avatar avatar) {
+        return load(avatar, dbAvatarStorage);
+    }
+
+    public Resource getFromFs(Avatar avatar) {
+        return load(avatar, fsAvatarStorage);
+    }
+
+    public int previewSize(int size) {
+        return avatarPreviewService.previewSize(size);
+    }
+
+    public Resource getPreview(Avatar avatar, int size) {
+        return Optional.ofNullable(avatar.getChecksum())
+                .map(hash -> avatarPreviewService.get(hash, size))
+                .orElseThrow(() -> new AvatarNotFoundException(avatar.getId()));
+    }
+
+    private Resource load(Avatar avatar, AvatarStorage preferred) {
+        String hash = avatar.getChecksum();
+        if (hash == null) {
+            throw new AvatarNotFoundException(avatar.getId());
         }
+        return avatarCache.get(hash)
+                .or(() -> preferred.load(hash)
+                        .or(() -> avatarStorage.load(hash))
+                        .map(resource -> avatarCache.put(hash, avatar.getFileSize(), resource)))
+                .orElseThrow(() -> new AvatarNotFoundException(avatar.getId()));
     }
-}
 
+    private static class Upload {
+        private final Avatar avatar;
+        private final String oldHash;
 
+        private Upload(Avatar avatar, String oldHash) {
+            this.avatar = avatar;
+            this.oldHash = oldHash;
+        }
+    }
+}
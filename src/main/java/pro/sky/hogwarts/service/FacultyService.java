@@ -1,83 +1,153 @@
 package pro.sky.hogwarts.service;
 
 import io.micrometer.common.lang.Nullable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pro.sky.hogwarts.cache.FacultyCache;
+import pro.sky.hogwarts.dto.BatchDtoOut;
 import pro.sky.hogwarts.dto.FacultyDtoIn;
 import pro.sky.hogwarts.dto.FacultyDtoOut;
+import pro.sky.hogwarts.dto.FacultyRosterDtoOut;
+import pro.sky.hogwarts.dto.PageDtoOut;
 import pro.sky.hogwarts.dto.StudentDtoOut;
+import pro.sky.hogwarts.dto.StudentSlimDtoOut;
 import pro.sky.hogwarts.entity.Faculty;
 import pro.sky.hogwarts.exception.FacultyNotFoundException;
+import pro.sky.hogwarts.exception.PreconditionFailedException;
+import pro.sky.hogwarts.index.FacultySearchIndex;
 import pro.sky.hogwarts.mapper.FacultyMapper;
+import pro.sky.hogwarts.mapper.PageMapper;
 import pro.sky.hogwarts.mapper.StudentMapper;
 import pro.sky.hogwarts.repository.FacultyRepository;
+import pro.sky.hogwarts.repository.FacultyWriteView;
 import pro.sky.hogwarts.repository.StudentRepository;
+import pro.sky.hogwarts.repository.StudentSlimView;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class FacultyService {
+    private static final long ANY_VERSION = -1;
+
     private final FacultyRepository facultyRepository;
     private final StudentRepository studentRepository;
     private final FacultyMapper facultyMapper;
     private final StudentMapper studentMapper;
+    private final PageMapper pageMapper;
+    private final FacultyCache facultyCache;
+    private final FacultySearchIndex facultySearchIndex;
 
     public FacultyService(FacultyRepository facultyRepository, StudentRepository studentRepository,
-                          FacultyMapper facultyMapper, StudentMapper studentMapper) {
+                          FacultyMapper facultyMapper, StudentMapper studentMapper, PageMapper pageMapper,
+                          FacultyCache facultyCache, FacultySearchIndex facultySearchIndex) {
         this.facultyRepository = facultyRepository;
         this.studentRepository = studentRepository;
         this.facultyMapper = facultyMapper;
         this.studentMapper = studentMapper;
+        this.pageMapper = pageMapper;
+        this.facultyCache = facultyCache;
+        this.facultySearchIndex = facultySearchIndex;
     }
 
     public FacultyDtoOut create(FacultyDtoIn facultyDtoIn) {
-        return facultyMapper.toDto(
+        FacultyDtoOut facultyDtoOut = facultyMapper.toDto(
                 facultyRepository.save(
                         facultyMapper.toEntity(facultyDtoIn)));
+        facultyCache.put(facultyDtoOut);
+        facultySearchIndex.put(facultyDtoOut);
+        return facultyDtoOut;
     }
 
-    public FacultyDtoOut update(long id, FacultyDtoIn facultyDtoIn) {
-        return facultyRepository.findById(id)
-                .map(oldFaculty -> {
-                    oldFaculty.setColor(facultyDtoIn.getColor());
-                    oldFaculty.setName(facultyDtoIn.getName());
-                    return facultyMapper.toDto(facultyRepository.save(oldFaculty));
-                })
-                .orElseThrow(() -> new FacultyNotFoundException(id));
+    @Transactional
+    public FacultyDtoOut update(long id, FacultyDtoIn facultyDtoIn, @Nullable Long version) {
+        FacultyDtoOut facultyDtoOut = facultyRepository.updateVersioned(id, facultyDtoIn.getName(), facultyDtoIn.getColor(),
+                        Optional.ofNullable(version).orElse(ANY_VERSION))
+                .map(this::toDto)
+                .orElseThrow(() -> writeFailed(id));
+        facultyCache.put(facultyDtoOut);
+        facultySearchIndex.put(facultyDtoOut);
+        return facultyDtoOut;
     }
 
-    public FacultyDtoOut delete(long id) {
-        Faculty faculty = facultyRepository.findById(id)
-                .orElseThrow(() -> new FacultyNotFoundException(id));
-        facultyRepository.delete(faculty);
-        return facultyMapper.toDto(faculty);
+    @Transactional
+    public FacultyDtoOut delete(long id, @Nullable Long version) {
+        FacultyDtoOut facultyDtoOut = facultyRepository.deleteVersioned(id, Optional.ofNullable(version).orElse(ANY_VERSION))
+                .map(this::toDto)
+                .orElseThrow(() -> writeFailed(id));
+        facultyCache.evict(id);
+        facultySearchIndex.remove(id);
+        return facultyDtoOut;
+    }
+
+    private RuntimeException writeFailed(long id) {
+        return facultyRepository.existsById(id)
+                ? new PreconditionFailedException(id)
+                : new FacultyNotFoundException(id);
+    }
+
+    private FacultyDtoOut toDto(FacultyWriteView faculty) {
+        FacultyDtoOut facultyDtoOut = new FacultyDtoOut(faculty.getId(), faculty.getName(), faculty.getColor());
+        facultyDtoOut.setVersion(faculty.getVersion());
+        return facultyDtoOut;
     }
 
     public FacultyDtoOut get(long id) {
-        return facultyRepository.findById(id)
-                .map(facultyMapper::toDto)
+        return facultyCache.get(id, key -> facultyRepository.findById(key).map(facultyMapper::toDto))
                 .orElseThrow(() -> new FacultyNotFoundException(id));
     }
 
-    public List<FacultyDtoOut> findAll(@Nullable String color) {
-        return Optional.ofNullable(color)
-                .map(facultyRepository::findAllByColor)
-                .orElseGet(facultyRepository::findAll).stream()
-                .map(facultyMapper::toDto)
-                .collect(Collectors.toList());
+    public BatchDtoOut<FacultyDtoOut> findAllById(List<Long> ids) {
+        List<Long> distinctIds = pageMapper.ids(ids);
+        List<FacultyDtoOut> faculties = facultyCache.getAllById(distinctIds,
+                missingIds -> toDto(facultyRepository.findAllById(missingIds)));
+        return pageMapper.toBatch(distinctIds, faculties, FacultyDtoOut::getId, Function.identity());
+    }
+
+    public PageDtoOut<FacultyDtoOut> findAll(@Nullable String color, @Nullable String cursor, @Nullable Integer size) {
+        List<FacultyDtoOut> faculties = Optional.ofNullable(color)
+                .map(c -> facultyCache.getByColor(c, key -> toDto(facultyRepository.findAllByColorOrderByIdAsc(key))))
+                .orElseGet(() -> facultyCache.getAll(() -> toDto(facultyRepository.findAll(Sort.by("id")))));
+        long after = pageMapper.after(cursor);
+        int limit = pageMapper.size(size);
+        return pageMapper.toDto(
+                faculties.stream()
+                        .filter(faculty -> faculty.getId() > after)
+                        .limit(limit + 1L)
+                        .collect(Collectors.toList()),
+                limit, FacultyDtoOut::getId, Function.identity());
     }
 
     public List<FacultyDtoOut> findByColorOrName(String colorOrName) {
-        return facultyRepository.findByColorContainingIgnoreCaseOrNameContainingIgnoreCase(colorOrName, colorOrName)
-                .stream()
+        return facultySearchIndex.search(colorOrName);
+    }
+
+    private List<FacultyDtoOut> toDto(List<Faculty> faculties) {
+        return faculties.stream()
                 .map(facultyMapper::toDto)
                 .collect(Collectors.toList());
     }
 
-    public List<StudentDtoOut> findStudents(long id) {
-        return studentRepository.findAllByFaculty_Id(id).stream()
-                .map(studentMapper::toDto)
-                .collect(Collectors.toList());
+    public PageDtoOut<StudentDtoOut> findStudents(long id, @Nullable String cursor, @Nullable Integer size) {
+        long after = pageMapper.after(cursor);
+        int limit = pageMapper.size(size);
+        return pageMapper.toDto(
+                studentRepository.findWithAvatarByFacultyId(id, after, pageMapper.limit(limit)),
+                limit, student -> student.getStudent().getId(), studentMapper::toDto);
+    }
+
+    public FacultyRosterDtoOut findRoster(long id, @Nullable String cursor, @Nullable Integer size) {
+        FacultyDtoOut faculty = get(id);
+        long studentCount = facultyRepository.findStudentCountById(id)
+                .orElseThrow(() -> new FacultyNotFoundException(id));
+        long after = pageMapper.after(cursor);
+        int limit = pageMapper.size(size);
+        return new FacultyRosterDtoOut(faculty, studentCount, pageMapper.toDto(
+                studentRepository.findSlimByFacultyId(id, after, pageMapper.limit(limit)),
+                limit, StudentSlimView::getId,
+                student -> new StudentSlimDtoOut(student.getId(), student.getName(), student.getAge())));
     }
 }
@@ -0,0 +1,63 @@
+package pro.sky.hogwarts.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pro.sky.hogwarts.dto.StudentDtoOut;
+import pro.sky.hogwarts.entity.Student;
+import pro.sky.hogwarts.mapper.StudentMapper;
+import pro.sky.hogwarts.repository.StudentRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class StudentExportService {
+    private static final byte NEW_LINE = '\n';
+
+    private final StudentRepository studentRepository;
+    private final StudentMapper studentMapper;
+    private final ObjectWriter objectWriter;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    public StudentExportService(StudentRepository studentRepository,
+                                StudentMapper studentMapper,
+                                ObjectMapper objectMapper,
+                                EntityManager entityManager,
+                                @Value("${students.export.chunk-size:1000}") int chunkSize) {
+        this.studentRepository = studentRepository;
+        this.studentMapper = studentMapper;
+        this.objectWriter = objectMapper.writerFor(StudentDtoOut.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(OutputStream outputStream) throws IOException {
+        try (Stream<Student> students = studentRepository.streamAll()) {
+            Iterator<Student> iterator = students.iterator();
+            long count = 0;
+            while (iterator.hasNext()) {
+                Student student = iterator.next();
+                objectWriter.writeValue(outputStream, studentMapper.toDto(student));
+                outputStream.write(NEW_LINE);
+                entityManager.detach(student);
+                if (++count == 1 || count % chunkSize == 0) {
+                    entityManager.clear();
+                    outputStream.flush();
+                }
+            }
+            outputStream.flush();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package pro.sky.hogwarts.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.hogwarts.dto.ImportErrorDtoOut;
+import pro.sky.hogwarts.dto.ImportResultDtoOut;
+import pro.sky.hogwarts.dto.StudentDtoIn;
+import pro.sky.hogwarts.entity.Faculty;
+import pro.sky.hogwarts.entity.Student;
+import pro.sky.hogwarts.index.StudentAgeIndex;
+import pro.sky.hogwarts.index.StudentNameIndex;
+import pro.sky.hogwarts.invalidation.EntityType;
+import pro.sky.hogwarts.invalidation.InvalidationBus;
+import pro.sky.hogwarts.repository.FacultyRepository;
+import pro.sky.hogwarts.repository.StudentRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class StudentImportService {
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final StudentNameIndex studentNameIndex;
+    private final StudentAgeIndex studentAgeIndex;
+    private final InvalidationBus invalidationBus;
+    private final int batchSize;
+
+    public StudentImportService(StudentRepository studentRepository,
+                                FacultyRepository facultyRepository,
+                                ObjectMapper objectMapper,
+                                EntityManager entityManager,
+                                TransactionTemplate transactionTemplate,
+                                StudentNameIndex studentNameIndex,
+                                StudentAgeIndex studentAgeIndex,
+                                InvalidationBus invalidationBus,
+                                @Value("${students.import.batch-size:50}") int batchSize) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.studentNameIndex = studentNameIndex;
+        this.studentAgeIndex = studentAgeIndex;
+        this.invalidationBus = invalidationBus;
+        this.batchSize = batchSize;
+    }
+
+    public ImportResultDtoOut importCsv(InputStream inputStream) throws IOException {
+        ImportResultDtoOut result = new ImportResultDtoOut();
+        List<Row> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            long rowNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                rowNumber++;
+                if (line.isBlank() || (rowNumber == 1 && line.trim().toLowerCase().startsWith("name"))) {
+                    continue;
+                }
+                try {
+                    batch.add(new Row(rowNumber, parseCsv(line)));
+                } catch (IllegalArgumentException e) {
+                    result.getErrors().add(new ImportErrorDtoOut(rowNumber, "Некорректная строка: " + line));
+                }
+                if (batch.size() == batchSize) {
+                    flush(batch, result);
+                }
+            }
+        }
+        flush(batch, result);
+        return result;
+    }
+
+    public ImportResultDtoOut importJson(InputStream inputStream) throws IOException {
+        ImportResultDtoOut result = new ImportResultDtoOut();
+        List<Row> batch = new ArrayList<>(batchSize);
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                result.getErrors().add(new ImportErrorDtoOut(0, "Ожидается JSON-массив студентов"));
+                return result;
+            }
+            long rowNumber = 0;
+            while (true) {
+                rowNumber++;
+                JsonNode node;
+                try {
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        break;
+                    }
+                    node = objectMapper.readTree(parser);
+                } catch (JsonProcessingException e) {
+                    node = null;
+                }
+                if (node == null) {
+                    result.getErrors().add(new ImportErrorDtoOut(rowNumber, "Некорректный JSON, импорт остановлен"));
+                    break;
+                }
+                if (!node.isObject()) {
+                    result.getErrors().add(new ImportErrorDtoOut(rowNumber, "Ожидается объект студента: " + node));
+                    continue;
+                }
+                try {
+                    batch.add(new Row(rowNumber, objectMapper.treeToValue(node, StudentDtoIn.class)));
+                } catch (JsonProcessingException e) {
+                    result.getErrors().add(new ImportErrorDtoOut(rowNumber,
+                            "Некорректные данные студента: " + e.getOriginalMessage()));
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    flush(batch, result);
+                }
+            }
+        }
+        flush(batch, result);
+        return result;
+    }
+
+    private StudentDtoIn parseCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length < 2 || columns.length > 3) {
+            throw new IllegalArgumentException(line);
+        }
+        StudentDtoIn studentDtoIn = new StudentDtoIn();
+        studentDtoIn.setName(columns[0].trim());
+        studentDtoIn.setAge(Integer.parseInt(columns[1].trim()));
+        if (columns.length == 3 && !columns[2].isBlank()) {
+            studentDtoIn.setFacultyId(Long.parseLong(columns[2].trim()));
+        }
+        return studentDtoIn;
+    }
+
+    private void flush(List<Row> batch, ImportResultDtoOut result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Long, Faculty> faculties = facultyRepository.findAllById(
+                        batch.stream()
+                                .map(row -> row.student.getFacultyId())
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Faculty::getId, Function.identity()));
+
+        List<Student> students = new ArrayList<>(batch.size());
+        List<Row> accepted = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            String error = validate(row.student, faculties);
+            if (error != null) {
+                result.getErrors().add(new ImportErrorDtoOut(row.number, error));
+                continue;
+            }
+            students.add(toEntity(row.student, faculties));
+            accepted.add(row);
+        }
+
+        try {
+            save(students);
+            result.setImported(result.getImported() + students.size());
+        } catch (RuntimeException e) {
+            for (Row row : accepted) {
+                try {
+                    save(List.of(toEntity(row.student, faculties)));
+                    result.setImported(result.getImported() + 1);
+                } catch (RuntimeException rowException) {
+                    result.getErrors().add(new ImportErrorDtoOut(row.number,
+                            "Не удалось сохранить студента: " + rowException.getMessage()));
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void save(List<Student> students) {
+        transactionTemplate.executeWithoutResult(status -> {
+            studentRepository.saveAll(students);
+            students.stream()
+                    .map(Student::getFaculty)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.groupingBy(Faculty::getId, Collectors.counting()))
+                    .forEach(facultyRepository::addStudentCount);
+            entityManager.flush();
+            entityManager.clear();
+            students.forEach(student -> invalidationBus.publish(EntityType.STUDENT, student.getId()));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    students.forEach(student -> {
+                        studentNameIndex.put(student.getId(), student.getName());
+                        studentAgeIndex.put(student.getId(), student.getAge());
+                    });
+                }
+            });
+        });
+    }
+
+    private String validate(StudentDtoIn studentDtoIn, Map<Long, Faculty> faculties) {
+        if (studentDtoIn.getName() == null || studentDtoIn.getName().isBlank()) {
+            return "Не указано имя студента";
+        }
+        if (studentDtoIn.getAge() <= 0) {
+            return "Некорректный возраст: " + studentDtoIn.getAge();
+        }
+        if (studentDtoIn.getFacultyId() != null && !faculties.containsKey(studentDtoIn.getFacultyId())) {
+            return "Факультет с id = " + studentDtoIn.getFacultyId() + " не найден!";
+        }
+        return null;
+    }
+
+    private Student toEntity(StudentDtoIn studentDtoIn, Map<Long, Faculty> faculties) {
+        Student student = new Student();
+        student.setName(studentDtoIn.getName());
+        student.setAge(studentDtoIn.getAge());
+        if (studentDtoIn.getFacultyId() != null) {
+            student.setFaculty(faculties.get(studentDtoIn.getFacultyId()));
+        }
+        return student;
+    }
+
+    private static class Row {
+        private final long number;
+        private final StudentDtoIn student;
+
+        private Row(long number, StudentDtoIn student) {
+            this.number = number;
+            this.student = student;
+        }
+    }
+}
@@ -1,96 +1,187 @@
 package pro.sky.hogwarts.service;
 
 import io.micrometer.common.lang.Nullable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import pro.sky.hogwarts.dto.BatchDtoOut;
 import pro.sky.hogwarts.dto.FacultyDtoOut;
+import pro.sky.hogwarts.dto.PageDtoOut;
 import pro.sky.hogwarts.dto.StudentDtoIn;
 import pro.sky.hogwarts.dto.StudentDtoOut;
+import pro.sky.hogwarts.dto.StudentSuggestionDtoOut;
 import pro.sky.hogwarts.entity.Avatar;
 import pro.sky.hogwarts.entity.Student;
 import pro.sky.hogwarts.exception.FacultyNotFoundException;
+import pro.sky.hogwarts.exception.PreconditionFailedException;
 import pro.sky.hogwarts.exception.StudentNotFoundException;
-import pro.sky.hogwarts.mapper.FacultyMapper;
+import pro.sky.hogwarts.index.StudentAgeIndex;
+import pro.sky.hogwarts.index.StudentNameIndex;
+import pro.sky.hogwarts.invalidation.EntityType;
+import pro.sky.hogwarts.invalidation.InvalidationBus;
+import pro.sky.hogwarts.mapper.PageMapper;
 import pro.sky.hogwarts.mapper.StudentMapper;
 import pro.sky.hogwarts.repository.FacultyRepository;
+import pro.sky.hogwarts.repository.StudentAvatarView;
 import pro.sky.hogwarts.repository.StudentRepository;
+import pro.sky.hogwarts.repository.StudentWriteView;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class  StudentService {
+    private static final long ANY_VERSION = -1;
+
     private final StudentRepository studentRepository;
     private final FacultyRepository facultyRepository;
     private final StudentMapper studentMapper;
-    private final FacultyMapper facultyMapper;
     private final AvatarService avatarService;
+    private final PageMapper pageMapper;
+    private final FacultyService facultyService;
+    private final InvalidationBus invalidationBus;
+    private final StudentNameIndex studentNameIndex;
+    private final StudentAgeIndex studentAgeIndex;
 
     public StudentService(StudentRepository studentRepository,
                           FacultyRepository facultyRepository,
-                          StudentMapper studentMapper, FacultyMapper facultyMapper, AvatarService avatarService) {
+                          StudentMapper studentMapper, AvatarService avatarService,
+                          PageMapper pageMapper, FacultyService facultyService,
+                          InvalidationBus invalidationBus, StudentNameIndex studentNameIndex,
+                          StudentAgeIndex studentAgeIndex) {
         this.studentRepository = studentRepository;
         this.facultyRepository = facultyRepository;
         this.studentMapper = studentMapper;
-        this.facultyMapper = facultyMapper;
         this.avatarService = avatarService;
+        this.pageMapper = pageMapper;
+        this.facultyService = facultyService;
+        this.invalidationBus = invalidationBus;
+        this.studentNameIndex = studentNameIndex;
+        this.studentAgeIndex = studentAgeIndex;
     }
 
+    @Transactional
     public StudentDtoOut create(StudentDtoIn studentDtoIn) {
-        return studentMapper.toDto(
-                studentRepository.save(
-                        studentMapper.toEntity(studentDtoIn)));
-    }
-
-    public StudentDtoOut update(long id, StudentDtoIn studentDtoIn) {
-        return studentRepository.findById(id)
-                .map(oldStudent -> {
-                    oldStudent.setName(studentDtoIn.getName());
-                    oldStudent.setAge(studentDtoIn.getAge());
-                    Optional.ofNullable(studentDtoIn.getFacultyId())
-                            .ifPresent(facultyId ->
-                                    oldStudent.setFaculty(
-                                            facultyRepository.findById(facultyId)
-                                                    .orElseThrow(() -> new FacultyNotFoundException(facultyId))
-                                    )
-                            );
-                    return studentMapper.toDto(studentRepository.save(oldStudent));
-                })
-                .orElseThrow(() -> new StudentNotFoundException(id));
+        Student student = studentRepository.save(studentMapper.toEntity(studentDtoIn));
+        Optional.ofNullable(student.getFaculty())
+                .ifPresent(faculty -> facultyRepository.addStudentCount(faculty.getId(), 1));
+        invalidationBus.publish(EntityType.STUDENT, student.getId());
+        studentNameIndex.put(student.getId(), student.getName());
+        studentAgeIndex.put(student.getId(), student.getAge());
+        return studentMapper.toDto(student);
     }
 
-    public StudentDtoOut delete(long id) {
-        Student student = studentRepository.findById(id)
-                .orElseThrow(() -> new StudentNotFoundException(id));
-        studentRepository.delete(student);
-        return studentMapper.toDto(student);
+    @Transactional
+    public StudentDtoOut update(long id, StudentDtoIn studentDtoIn, @Nullable Long version) {
+        Long facultyId = studentDtoIn.getFacultyId();
+        StudentDtoOut studentDtoOut;
+        try {
+            studentDtoOut = studentRepository.updateVersioned(id, studentDtoIn.getName(), studentDtoIn.getAge(),
+                            facultyId, Optional.ofNullable(version).orElse(ANY_VERSION))
+                    .map(this::toDto)
+                    .orElseThrow(() -> writeFailed(id));
+        } catch (DataIntegrityViolationException e) {
+            throw facultyId == null ? e : new FacultyNotFoundException(facultyId);
+        }
+        invalidationBus.publish(EntityType.STUDENT, id);
+        studentNameIndex.put(id, studentDtoOut.getName());
+        studentAgeIndex.put(id, studentDtoOut.getAge());
+        return studentDtoOut;
+    }
+
+    @Transactional
+    public StudentDtoOut delete(long id, @Nullable Long version) {
+        StudentDtoOut studentDtoOut = studentRepository.deleteVersioned(id, Optional.ofNullable(version).orElse(ANY_VERSION))
+                .map(this::toDto)
+                .orElseThrow(() -> writeFailed(id));
+        invalidationBus.publish(EntityType.STUDENT, id);
+        studentNameIndex.remove(id);
+        studentAgeIndex.remove(id);
+        return studentDtoOut;
+    }
+
+    private RuntimeException writeFailed(long id) {
+        return studentRepository.existsById(id)
+                ? new PreconditionFailedException(id)
+                : new StudentNotFoundException(id);
+    }
+
+    private StudentDtoOut toDto(StudentWriteView student) {
+        StudentDtoOut studentDtoOut = new StudentDtoOut();
+        studentDtoOut.setId(student.getId());
+        studentDtoOut.setName(student.getName());
+        studentDtoOut.setAge(student.getAge());
+        studentDtoOut.setVersion(student.getVersion());
+        Optional.ofNullable(student.getFacultyId())
+                .ifPresent(facultyId -> studentDtoOut.setFaculty(facultyService.get(facultyId)));
+        return studentDtoOut;
     }
 
     public StudentDtoOut get(long id) {
-        return studentRepository.findById(id)
+        return studentRepository.findWithAvatarById(id)
                 .map(studentMapper::toDto)
                 .orElseThrow(() -> new StudentNotFoundException(id));
     }
 
-    public List<StudentDtoOut> findAll(@Nullable Integer age) {
+    public BatchDtoOut<StudentDtoOut> findAllById(List<Long> ids) {
+        List<Long> distinctIds = pageMapper.ids(ids);
+        return pageMapper.toBatch(distinctIds, studentRepository.findWithAvatarByIdIn(distinctIds),
+                StudentService::id, studentMapper::toDto);
+    }
+
+    public PageDtoOut<StudentDtoOut> findAll(@Nullable Integer age, @Nullable String cursor, @Nullable Integer size) {
+        if (age != null) {
+            return findByAgeBetween(age, age, cursor, size);
+        }
+        long after = pageMapper.after(cursor);
+        int limit = pageMapper.size(size);
+        return pageMapper.toDto(
+                studentRepository.findWithAvatarByIdGreaterThan(after, pageMapper.limit(limit)),
+                limit, StudentService::id, studentMapper::toDto);
+    }
+
+    public PageDtoOut<StudentDtoOut> findByAgeBetween(int ageFrom, int ageTo, @Nullable String cursor, @Nullable Integer size) {
+        long after = pageMapper.after(cursor);
+        int limit = pageMapper.size(size);
+        List<StudentAvatarView> students = studentAgeIndex.isReady()
+                ? loadOrdered(studentAgeIndex.ids(ageFrom, ageTo, after, limit + 1))
+                : studentRepository.findWithAvatarByAgeBetween(ageFrom, ageTo, after, pageMapper.limit(limit));
+        return pageMapper.toDto(students, limit, StudentService::id, studentMapper::toDto);
+    }
+
+    public long count(@Nullable Integer age) {
         return Optional.ofNullable(age)
-                .map(studentRepository::findAllByAge)
-                .orElseGet(studentRepository::findAll).stream()
-                .map(studentMapper::toDto)
-                .collect(Collectors.toList());
+                .map(a -> countByAgeBetween(a, a))
+                .orElseGet(() -> countByAgeBetween(Integer.MIN_VALUE, Integer.MAX_VALUE));
     }
 
-    public List<StudentDtoOut> findByAgeBetween(int ageFrom, int ageTo) {
-        return studentRepository.findByAgeBetween(ageFrom, ageTo).stream()
-                .map(studentMapper::toDto)
-                .collect(Collectors.toList());
+    public long countByAgeBetween(int ageFrom, int ageTo) {
+        return studentAgeIndex.isReady()
+                ? studentAgeIndex.count(ageFrom, ageTo)
+                : studentRepository.countByAgeBetween(ageFrom, ageTo);
+    }
+
+    private List<StudentAvatarView> loadOrdered(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        return studentRepository.findWithAvatarByIdIn(Arrays.stream(ids).boxed().collect(Collectors.toList()));
+    }
+
+    private static long id(StudentAvatarView studentAvatarView) {
+        return studentAvatarView.getStudent().getId();
+    }
+
+    public List<StudentSuggestionDtoOut> suggest(String prefix, @Nullable Integer limit) {
+        return studentNameIndex.suggest(prefix, limit);
     }
 
     public FacultyDtoOut findFaculty(long id) {
-        return studentRepository.findById(id)
-                .map(Student::getFaculty)
-                .map(facultyMapper::toDto)
+        return studentRepository.findFacultyIdById(id)
+                .map(facultyService::get)
                 .orElseThrow(() -> new StudentNotFoundException(id));
     }
 
@@ -98,8 +189,6 @@ public class  StudentService {
         Student student = studentRepository.findById(id)
                 .orElseThrow(() -> new StudentNotFoundException(id));
         Avatar avatar = avatarService.create(student, multipartFile);
-        StudentDtoOut studentDtoOut = studentMapper.toDto(student);
-        studentDtoOut.setAvatarUrl("http://localhost:8082/avatars/" + avatar.getId() + "/from-db");
-        return studentDtoOut;
+        return studentMapper.toDto(student, avatar);
     }
 }
@@ -0,0 +1,179 @@
+package pro.sky.hogwarts.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pro.sky.hogwarts.dto.FacultyStatsDtoOut;
+import pro.sky.hogwarts.dto.FacultyStudentCountDtoOut;
+import pro.sky.hogwarts.dto.StudentDtoOut;
+import pro.sky.hogwarts.dto.StudentStatsDtoOut;
+import pro.sky.hogwarts.entity.Faculty;
+import pro.sky.hogwarts.entity.Student;
+import pro.sky.hogwarts.mapper.PageMapper;
+import pro.sky.hogwarts.mapper.StudentMapper;
+import pro.sky.hogwarts.repository.AgeStatsView;
+import pro.sky.hogwarts.repository.FacultyRepository;
+import pro.sky.hogwarts.repository.FacultyStudentCountView;
+import pro.sky.hogwarts.repository.StudentAgeView;
+import pro.sky.hogwarts.repository.StudentRepository;
+import pro.sky.hogwarts.repository.StudentStatsView;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class StudentStatsService {
+    private static final Comparator<StudentStatsView> YOUNGEST = Comparator.comparingInt(StudentStatsView::getAge)
+            .thenComparing(StudentStatsView::getId);
+    private static final Comparator<StudentStatsView> OLDEST = Comparator.comparingInt(StudentStatsView::getAge).reversed()
+            .thenComparing(StudentStatsView::getId);
+
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+    private final StudentMapper studentMapper;
+    private final PageMapper pageMapper;
+    private final FacultyService facultyService;
+    private final boolean inMemory;
+
+    public StudentStatsService(StudentRepository studentRepository,
+                               FacultyRepository facultyRepository,
+                               StudentMapper studentMapper,
+                               PageMapper pageMapper,
+                               FacultyService facultyService,
+                               @Value("${students.stats.mode:sql}") String mode) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+        this.studentMapper = studentMapper;
+        this.pageMapper = pageMapper;
+        this.facultyService = facultyService;
+        this.inMemory = "memory".equalsIgnoreCase(mode);
+    }
+
+    @Transactional(readOnly = true)
+    public StudentStatsDtoOut students(Integer limit) {
+        int size = pageMapper.size(limit);
+        return inMemory ? studentsInMemory(size) : studentsInSql(size);
+    }
+
+    @Transactional(readOnly = true)
+    public FacultyStatsDtoOut faculty(long id) {
+        FacultyStatsDtoOut facultyStatsDtoOut = new FacultyStatsDtoOut();
+        facultyStatsDtoOut.setFaculty(facultyService.get(id));
+        if (inMemory) {
+            IntSummaryStatistics statistics;
+            try (Stream<StudentAgeView> stream = studentRepository.streamAgesByFacultyId(id)) {
+                statistics = stream.mapToInt(StudentAgeView::getAge).summaryStatistics();
+            }
+            facultyStatsDtoOut.setCount(statistics.getCount());
+            if (statistics.getCount() > 0) {
+                facultyStatsDtoOut.setAverageAge(statistics.getAverage());
+                facultyStatsDtoOut.setMinAge(statistics.getMin());
+                facultyStatsDtoOut.setMaxAge(statistics.getMax());
+            }
+        } else {
+            AgeStatsView ageStats = studentRepository.findAgeStatsByFaculty_Id(id);
+            facultyStatsDtoOut.setCount(ageStats.getCount());
+            facultyStatsDtoOut.setAverageAge(ageStats.getAverageAge());
+            facultyStatsDtoOut.setMinAge(ageStats.getMinAge());
+            facultyStatsDtoOut.setMaxAge(ageStats.getMaxAge());
+        }
+        return facultyStatsDtoOut;
+    }
+
+    private StudentStatsDtoOut studentsInSql(int size) {
+        AgeStatsView ageStats = studentRepository.findAgeStats();
+        StudentStatsDtoOut studentStatsDtoOut = new StudentStatsDtoOut();
+        studentStatsDtoOut.setCount(ageStats.getCount());
+        studentStatsDtoOut.setAverageAge(ageStats.getAverageAge());
+        studentStatsDtoOut.setMinAge(ageStats.getMinAge());
+        studentStatsDtoOut.setMaxAge(ageStats.getMaxAge());
+        studentStatsDtoOut.setYoungest(toDto(studentRepository.findAllByOrderByAgeAscIdAsc(PageRequest.of(0, size)).stream()));
+        studentStatsDtoOut.setOldest(toDto(studentRepository.findAllByOrderByAgeDescIdAsc(PageRequest.of(0, size)).stream()));
+        studentStatsDtoOut.setFaculties(studentRepository.countByFaculty().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList()));
+        return studentStatsDtoOut;
+    }
+
+    private StudentStatsDtoOut studentsInMemory(int size) {
+        IntSummaryStatistics statistics = new IntSummaryStatistics();
+        Map<Long, Long> counts = new HashMap<>();
+        PriorityQueue<StudentStatsView> youngest = new PriorityQueue<>(size + 1, YOUNGEST.reversed());
+        PriorityQueue<StudentStatsView> oldest = new PriorityQueue<>(size + 1, OLDEST.reversed());
+        try (Stream<StudentStatsView> stream = studentRepository.streamStats()) {
+            stream.forEach(student -> {
+                statistics.accept(student.getAge());
+                if (student.getFacultyId() != null) {
+                    counts.merge(student.getFacultyId(), 1L, Long::sum);
+                }
+                offer(youngest, student, size);
+                offer(oldest, student, size);
+            });
+        }
+        Map<Long, Student> students = studentRepository.findAllById(
+                        Stream.concat(youngest.stream(), oldest.stream())
+                                .map(StudentStatsView::getId)
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+
+        StudentStatsDtoOut studentStatsDtoOut = new StudentStatsDtoOut();
+        studentStatsDtoOut.setCount(statistics.getCount());
+        if (statistics.getCount() > 0) {
+            studentStatsDtoOut.setAverageAge(statistics.getAverage());
+            studentStatsDtoOut.setMinAge(statistics.getMin());
+            studentStatsDtoOut.setMaxAge(statistics.getMax());
+        }
+        studentStatsDtoOut.setYoungest(toDto(youngest.stream().sorted(YOUNGEST), students));
+        studentStatsDtoOut.setOldest(toDto(oldest.stream().sorted(OLDEST), students));
+        studentStatsDtoOut.setFaculties(facultyRepository.findAll().stream()
+                .sorted(Comparator.comparing(Faculty::getId))
+                .map(faculty -> toDto(faculty, counts.getOrDefault(faculty.getId(), 0L)))
+                .collect(Collectors.toList()));
+        return studentStatsDtoOut;
+    }
+
+    private static void offer(PriorityQueue<StudentStatsView> heap, StudentStatsView student, int size) {
+        heap.offer(student);
+        if (heap.size() > size) {
+            heap.poll();
+        }
+    }
+
+    private List<StudentDtoOut> toDto(Stream<StudentStatsView> views, Map<Long, Student> students) {
+        return toDto(views
+                .map(view -> students.get(view.getId()))
+                .filter(Objects::nonNull));
+    }
+
+    private List<StudentDtoOut> toDto(Stream<Student> students) {
+        return students
+                .map(studentMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private FacultyStudentCountDtoOut toDto(FacultyStudentCountView view) {
+        FacultyStudentCountDtoOut facultyStudentCountDtoOut = new FacultyStudentCountDtoOut();
+        facultyStudentCountDtoOut.setFacultyId(view.getFacultyId());
+        facultyStudentCountDtoOut.setName(view.getName());
+        facultyStudentCountDtoOut.setCount(view.getCount());
+        return facultyStudentCountDtoOut;
+    }
+
+    private FacultyStudentCountDtoOut toDto(Faculty faculty, long count) {
+        FacultyStudentCountDtoOut facultyStudentCountDtoOut = new FacultyStudentCountDtoOut();
+        facultyStudentCountDtoOut.setFacultyId(faculty.getId());
+        facultyStudentCountDtoOut.setName(faculty.getName());
+        facultyStudentCountDtoOut.setCount(count);
+        return facultyStudentCountDtoOut;
+    }
+}
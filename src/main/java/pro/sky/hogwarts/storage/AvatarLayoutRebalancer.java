@@ -0,0 +1,145 @@
+package pro.sky.hogwarts.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+@Component
+public class AvatarLayoutRebalancer {
+    private static final Logger log = LoggerFactory.getLogger(AvatarLayoutRebalancer.class);
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final FsAvatarStorage fsAvatarStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path pathToAvatarDir;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long delay;
+
+    public AvatarLayoutRebalancer(FsAvatarStorage fsAvatarStorage,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${path.to.avatar.dir}") String pathToAvatarDir,
+                                  @Value("${avatar.fs.rebalance.enabled:false}") boolean enabled,
+                                  @Value("${avatar.fs.rebalance.batch-size:500}") int batchSize,
+                                  @Value("${avatar.fs.rebalance.delay:100}") long delay) {
+        this.fsAvatarStorage = fsAvatarStorage;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pathToAvatarDir = Path.of(pathToAvatarDir);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.delay = delay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            relocateLegacyFiles();
+            rebalance();
+        }, "avatar-rebalancer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public long relocateLegacyFiles() {
+        long moved = 0;
+        long lastId = 0;
+        try {
+            List<Map<String, Object>> rows;
+            while (!(rows = jdbcTemplate.queryForList(
+                    "select id, checksum, file_path from avatar where file_path is not null and id > ? order by id limit ?",
+                    lastId, batchSize)).isEmpty()) {
+                for (Map<String, Object> row : rows) {
+                    lastId = ((Number) row.get("id")).longValue();
+                    if (relocateLegacyFile(lastId, (String) row.get("checksum"), Path.of((String) row.get("file_path")))) {
+                        moved++;
+                    }
+                }
+                log.info("Перенесено аватаров со старыми именами файлов: {}", moved);
+                Thread.sleep(delay);
+            }
+        } catch (BadSqlGrammarException e) {
+            log.info("Колонка avatar.file_path уже удалена, перенос старых файлов не требуется");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return moved;
+    }
+
+    private boolean relocateLegacyFile(long id, String checksum, Path file) {
+        if (!Files.isRegularFile(file)) {
+            log.warn("Файл аватара с id = {} не найден: {}", id, file);
+            return false;
+        }
+        try {
+            String hash = checksum != null ? checksum : sha256(file);
+            Path target = fsAvatarStorage.resolve(hash);
+            if (Files.exists(target)) {
+                Files.delete(file);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(file, target);
+            }
+            jdbcTemplate.update("update avatar set checksum = ?, file_path = null where id = ?", hash, id);
+            return true;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("Не удалось перенести файл аватара с id = {}", id, e);
+            return false;
+        }
+    }
+
+    private static String sha256(Path file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public long rebalance() {
+        long moved = 0;
+        if (!Files.isDirectory(pathToAvatarDir)) {
+            return moved;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(pathToAvatarDir,
+                path -> Files.isRegularFile(path) && HASH.matcher(path.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                Path target = fsAvatarStorage.resolve(file.getFileName().toString());
+                Files.createDirectories(target.getParent());
+                Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                if (++moved % batchSize == 0) {
+                    log.info("Перемещено аватаров в новую структуру каталогов: {}", moved);
+                    Thread.sleep(delay);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Ошибка при перестроении каталога аватаров", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Перестроение каталога аватаров завершено, перемещено: {}", moved);
+        return moved;
+    }
+}
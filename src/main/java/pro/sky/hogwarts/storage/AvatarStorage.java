@@ -0,0 +1,17 @@
+package pro.sky.hogwarts.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface AvatarStorage {
+
+    void save(String hash, Path source);
+
+    Optional<Resource> load(String hash);
+
+    boolean exists(String hash);
+
+    void delete(String hash);
+}
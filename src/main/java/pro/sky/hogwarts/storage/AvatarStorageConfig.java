@@ -0,0 +1,23 @@
+package pro.sky.hogwarts.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class AvatarStorageConfig {
+
+    @Bean
+    @Primary
+    public AvatarStorage avatarStorage(@Value("${avatar.storage:both}") String storage,
+                                       DbAvatarStorage dbAvatarStorage,
+                                       FsAvatarStorage fsAvatarStorage) {
+        return switch (storage) {
+            case "db" -> dbAvatarStorage;
+            case "fs" -> fsAvatarStorage;
+            case "both" -> new DualAvatarStorage(dbAvatarStorage, fsAvatarStorage);
+            default -> throw new IllegalStateException("Неизвестное хранилище аватаров: " + storage);
+        };
+    }
+}
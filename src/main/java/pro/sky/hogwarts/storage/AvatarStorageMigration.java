@@ -0,0 +1,136 @@
+package pro.sky.hogwarts.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.hogwarts.entity.Avatar;
+import pro.sky.hogwarts.exception.AvatarProcessingException;
+import pro.sky.hogwarts.repository.AvatarRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+@Component
+public class AvatarStorageMigration {
+    private static final Logger log = LoggerFactory.getLogger(AvatarStorageMigration.class);
+
+    private final AvatarRepository avatarRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AvatarStorage source;
+    private final AvatarStorage target;
+    private final boolean enabled;
+    private final boolean deleteSource;
+    private final int batchSize;
+    private final Path pathToAvatarDir;
+    private final Path checkpoint;
+    private long lastId;
+    private boolean finished;
+
+    public AvatarStorageMigration(AvatarRepository avatarRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  DbAvatarStorage dbAvatarStorage,
+                                  FsAvatarStorage fsAvatarStorage,
+                                  @Value("${avatar.migration.enabled:false}") boolean enabled,
+                                  @Value("${avatar.migration.to:fs}") String to,
+                                  @Value("${avatar.migration.delete-source:false}") boolean deleteSource,
+                                  @Value("${avatar.migration.batch-size:100}") int batchSize,
+                                  @Value("${path.to.avatar.dir}") String pathToAvatarDir) {
+        this.avatarRepository = avatarRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.source = "fs".equals(to) ? dbAvatarStorage : fsAvatarStorage;
+        this.target = "fs".equals(to) ? fsAvatarStorage : dbAvatarStorage;
+        this.enabled = enabled;
+        this.deleteSource = deleteSource;
+        this.batchSize = batchSize;
+        this.pathToAvatarDir = Path.of(pathToAvatarDir);
+        this.checkpoint = this.pathToAvatarDir.resolve(".migration-to-" + to);
+        this.lastId = readCheckpoint();
+    }
+
+    @Scheduled(fixedDelayString = "${avatar.migration.delay:1000}")
+    public void migrateBatch() {
+        if (!enabled || finished) {
+            return;
+        }
+        List<Avatar> avatars = avatarRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+        if (avatars.isEmpty()) {
+            finished = true;
+            log.info("Миграция аватаров завершена, последний id = {}", lastId);
+            return;
+        }
+        for (Avatar avatar : avatars) {
+            String hash = avatar.getChecksum();
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> migrate(hash))) && deleteSource) {
+                    transactionTemplate.executeWithoutResult(status -> source.delete(hash));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Не удалось перенести аватар с id = {}", avatar.getId(), e);
+            }
+            lastId = avatar.getId();
+        }
+        writeCheckpoint(lastId);
+        log.info("Перенесены аватары до id = {}", lastId);
+    }
+
+    private boolean migrate(String hash) {
+        if (hash == null || !source.exists(hash)) {
+            return false;
+        }
+        if (!target.exists(hash)) {
+            Resource resource = source.load(hash)
+                    .orElseThrow(AvatarProcessingException::new);
+            Path tempFile = copyToTempFile(resource);
+            try {
+                target.save(hash, tempFile);
+            } finally {
+                deleteQuietly(tempFile);
+            }
+        }
+        return true;
+    }
+
+    private Path copyToTempFile(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            Files.createDirectories(pathToAvatarDir);
+            Path tempFile = Files.createTempFile(pathToAvatarDir, "migration-", ".tmp");
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return tempFile;
+        } catch (IOException e) {
+            throw new AvatarProcessingException();
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private long readCheckpoint() {
+        try {
+            return Files.exists(checkpoint) ? Long.parseLong(Files.readString(checkpoint).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint(long id) {
+        try {
+            Files.createDirectories(pathToAvatarDir);
+            Files.writeString(checkpoint, Long.toString(id));
+        } catch (IOException e) {
+            log.warn("Не удалось сохранить позицию миграции аватаров", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package pro.sky.hogwarts.storage;
+
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pro.sky.hogwarts.entity.AvatarContent;
+import pro.sky.hogwarts.exception.AvatarProcessingException;
+import pro.sky.hogwarts.repository.AvatarContentRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.Optional;
+
+@Component
+public class DbAvatarStorage implements AvatarStorage {
+    private final AvatarContentRepository avatarContentRepository;
+
+    public DbAvatarStorage(AvatarContentRepository avatarContentRepository) {
+        this.avatarContentRepository = avatarContentRepository;
+    }
+
+    @Override
+    @Transactional
+    public void save(String hash, Path source) {
+        if (avatarContentRepository.existsById(hash)) {
+            return;
+        }
+        try (InputStream data = Files.newInputStream(source)) {
+            avatarContentRepository.saveAndFlush(
+                    new AvatarContent(hash, BlobProxy.generateProxy(data, Files.size(source))));
+        } catch (IOException e) {
+            throw new AvatarProcessingException();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Resource> load(String hash) {
+        return avatarContentRepository.findById(hash)
+                .map(AvatarContent::getData)
+                .map(blob -> new ByteArrayResource(read(blob)));
+    }
+
+    private byte[] read(Blob blob) {
+        try {
+            return blob.getBytes(1, (int) blob.length());
+        } catch (SQLException e) {
+            throw new AvatarProcessingException();
+        }
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return avatarContentRepository.existsById(hash);
+    }
+
+    @Override
+    @Transactional
+    public void delete(String hash) {
+        if (exists(hash)) {
+            avatarContentRepository.deleteById(hash);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package pro.sky.hogwarts.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class DualAvatarStorage implements AvatarStorage {
+    private final DbAvatarStorage dbAvatarStorage;
+    private final FsAvatarStorage fsAvatarStorage;
+
+    public DualAvatarStorage(DbAvatarStorage dbAvatarStorage, FsAvatarStorage fsAvatarStorage) {
+        this.dbAvatarStorage = dbAvatarStorage;
+        this.fsAvatarStorage = fsAvatarStorage;
+    }
+
+    @Override
+    public void save(String hash, Path source) {
+        dbAvatarStorage.save(hash, source);
+        fsAvatarStorage.save(hash, source);
+    }
+
+    @Override
+    public Optional<Resource> load(String hash) {
+        return fsAvatarStorage.load(hash)
+                .or(() -> dbAvatarStorage.load(hash));
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return fsAvatarStorage.exists(hash) && dbAvatarStorage.exists(hash);
+    }
+
+    @Override
+    public void delete(String hash) {
+        fsAvatarStorage.delete(hash);
+        dbAvatarStorage.delete(hash);
+    }
+}
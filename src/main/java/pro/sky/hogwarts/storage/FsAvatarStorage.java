@@ -0,0 +1,87 @@
+package pro.sky.hogwarts.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import pro.sky.hogwarts.exception.AvatarProcessingException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+@Component
+public class FsAvatarStorage implements AvatarStorage {
+    private final Path pathToAvatarDir;
+
+    public FsAvatarStorage(@Value("${path.to.avatar.dir}") String pathToAvatarDir) {
+        this.pathToAvatarDir = Path.of(pathToAvatarDir);
+    }
+
+    @Override
+    public void save(String hash, Path source) {
+        Path target = resolve(hash);
+        if (Files.exists(target)) {
+            return;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path tempFile = Files.createTempFile(target.getParent(), "avatar-", ".tmp");
+            try {
+                Files.copy(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new AvatarProcessingException();
+        }
+    }
+
+    @Override
+    public Optional<Resource> load(String hash) {
+        return locate(hash)
+                .map(path -> (Resource) new FileSystemResource(path))
+                .filter(Resource::isReadable);
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return locate(hash).isPresent();
+    }
+
+    @Override
+    public void delete(String hash) {
+        try {
+            Files.deleteIfExists(resolve(hash));
+            Files.deleteIfExists(resolveFlat(hash));
+        } catch (IOException e) {
+            throw new AvatarProcessingException();
+        }
+    }
+
+    public Path resolve(String hash) {
+        return pathToAvatarDir
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash);
+    }
+
+    private Path resolveFlat(String hash) {
+        return pathToAvatarDir.resolve(hash);
+    }
+
+    private Optional<Path> locate(String hash) {
+        Path sharded = resolve(hash);
+        if (Files.exists(sharded)) {
+            return Optional.of(sharded);
+        }
+        Path flat = resolveFlat(hash);
+        if (Files.exists(flat)) {
+            return Optional.of(flat);
+        }
+        return Files.exists(sharded) ? Optional.of(sharded) : Optional.empty();
+    }
+}
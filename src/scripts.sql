@@ -15,4 +15,69 @@ where age < id;
 
 select *
 from students
-order by age;
\ No newline at end of file
+order by age;
+
+create extension if not exists lo;
+
+create table if not exists avatar_content
+(
+    hash varchar(255) primary key,
+    data oid
+);
+drop trigger if exists avatar_content_lo_manage on avatar_content;
+create trigger avatar_content_lo_manage
+    before update or delete
+    on avatar_content
+    for each row
+execute function lo_manage(data);
+
+alter table avatar add column if not exists checksum varchar(255);
+
+do $$
+begin
+    if exists (select 1
+               from information_schema.columns
+               where table_name = 'avatar'
+                 and column_name = 'data') then
+        update avatar
+        set checksum = encode(sha256(lo_get(data)), 'hex')
+        where data is not null
+          and checksum is null;
+
+        insert into avatar_content (hash, data)
+        select distinct on (checksum) checksum, lo_from_bytea(0, lo_get(data))
+        from avatar
+        where data is not null
+        order by checksum, id
+        on conflict do nothing;
+
+        perform lo_unlink(data)
+        from avatar
+        where data is not null;
+
+        alter table avatar drop column data;
+    end if;
+end $$;
+
+do $$
+begin
+    if not exists (select 1 from avatar where file_path is not null) then
+        alter table avatar drop column file_path;
+    end if;
+end $$;
+
+create sequence if not exists students_seq increment by 50;
+select setval('students_seq', (select coalesce(max(id), 0) + 1 from students));
+
+alter table faculties add column if not exists student_count bigint not null default 0;
+update faculties f
+set student_count = (select count(*) from students s where s.faculty_id = f.id);
+
+alter table students add column if not exists version bigint not null default 0;
+alter table faculties add column if not exists version bigint not null default 0;
+
+delete from avatar a
+using avatar newer
+where a.student_id = newer.student_id
+  and a.id < newer.id;
+alter table avatar add constraint avatar_student_id_key unique (student_id);
@@ -0,0 +1,37 @@
+package pro.sky.hogwarts.controller;
+
+import org.junit.jupiter.api.Test;
+import pro.sky.hogwarts.exception.PreconditionFailedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ETagsTest {
+
+    @Test
+    public void ofTest() {
+        assertThat(ETags.of(3)).isEqualTo("\"3\"");
+    }
+
+    @Test
+    public void versionTest() {
+        assertThat(ETags.version("\"3\"", 1)).isEqualTo(3L);
+        assertThat(ETags.version(" W/\"7\" ", 1)).isEqualTo(7L);
+        assertThat(ETags.version("12", 1)).isEqualTo(12L);
+    }
+
+    @Test
+    public void versionWithoutPreconditionTest() {
+        assertThat(ETags.version(null, 1)).isNull();
+        assertThat(ETags.version(" ", 1)).isNull();
+        assertThat(ETags.version("*", 1)).isNull();
+    }
+
+    @Test
+    public void versionMalformedTest() {
+        assertThatThrownBy(() -> ETags.version("\"abc\"", 1))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> ETags.version("\"1\", \"2\"", 1))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+}
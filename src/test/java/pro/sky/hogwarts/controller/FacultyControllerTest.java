@@ -13,8 +13,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import pro.sky.hogwarts.cache.*;
 import pro.sky.hogwarts.dto.*;
 import pro.sky.hogwarts.entity.*;
+import pro.sky.hogwarts.index.*;
+import pro.sky.hogwarts.invalidation.*;
 import pro.sky.hogwarts.mapper.*;
 import pro.sky.hogwarts.repository.*;
 import pro.sky.hogwarts.service.*;
@@ -33,12 +36,24 @@ public class FacultyControllerTest {
     private FacultyRepository facultyRepository;
     @MockBean
     private StudentRepository studentRepository;
+    @MockBean
+    private InvalidationBus invalidationBus;
     @SpyBean
     private FacultyService facultyService;
     @SpyBean
     private FacultyMapper fvacultyMapper;
     @SpyBean
     private StudentMapper studentMapper;
+    @SpyBean
+    private AvatarMapper avatarMapper;
+    @SpyBean
+    private PageMapper pageMapper;
+    @SpyBean
+    private FacultyCache facultyCache;
+    @SpyBean
+    private FacultySearchIndex facultySearchIndex;
+    @SpyBean
+    private StudentStatsService studentStatsService;
     @Autowired
     private ObjectMapper objectMapper;
 
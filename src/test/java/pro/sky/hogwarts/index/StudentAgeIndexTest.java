@@ -0,0 +1,125 @@
+package pro.sky.hogwarts.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.hogwarts.invalidation.InvalidationBus;
+import pro.sky.hogwarts.invalidation.LocalInvalidationChannel;
+import pro.sky.hogwarts.repository.StudentAgeView;
+import pro.sky.hogwarts.repository.StudentRepository;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StudentAgeIndexTest {
+
+    private StudentAgeIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new StudentAgeIndex(mock(StudentRepository.class), mock(TransactionTemplate.class),
+                new InvalidationBus(new LocalInvalidationChannel(), 10), 1000);
+    }
+
+    @Test
+    public void insertAndCountTest() {
+        index.put(1, 17);
+        index.put(2, 17);
+        index.put(3, 18);
+
+        assertThat(index.count(17, 17)).isEqualTo(2);
+        assertThat(index.count(18, 20)).isEqualTo(1);
+        assertThat(index.count(Integer.MIN_VALUE, Integer.MAX_VALUE)).isEqualTo(3);
+        assertThat(index.count(19, 30)).isZero();
+    }
+
+    @Test
+    public void moveToAnotherAgeTest() {
+        index.put(1, 17);
+        index.put(1, 18);
+
+        assertThat(index.count(17, 17)).isZero();
+        assertThat(index.ids(18, 18, 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    public void removeTest() {
+        index.put(1, 17);
+        index.put(2, 17);
+        index.remove(1);
+        index.remove(42);
+
+        assertThat(index.ids(17, 17, 0, 10)).containsExactly(2L);
+        index.remove(2);
+        assertThat(index.count(Integer.MIN_VALUE, Integer.MAX_VALUE)).isZero();
+    }
+
+    @Test
+    public void pagesAcrossAgesInIdOrderTest() {
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, id % 2 == 0 ? 17 : 18);
+        }
+
+        assertThat(index.ids(17, 18, 0, 4)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(index.ids(17, 18, 4, 4)).containsExactly(5L, 6L, 7L, 8L);
+        assertThat(index.ids(17, 18, 8, 4)).containsExactly(9L, 10L);
+        assertThat(index.ids(17, 17, 0, 3)).containsExactly(2L, 4L, 6L);
+    }
+
+    @Test
+    public void storesExtremeAgesSparselyTest() {
+        index.put(1, 0);
+        index.put(2, 2_000_000_000);
+        index.put(3, -2_000_000_000);
+
+        assertThat(index.count(Integer.MIN_VALUE, Integer.MAX_VALUE)).isEqualTo(3);
+        assertThat(index.ids(0, Integer.MAX_VALUE, 0, 10)).containsExactly(1L, 2L);
+        assertThat(index.ids(Integer.MIN_VALUE, -1, 0, 10)).containsExactly(3L);
+    }
+
+    @Test
+    public void keepsWritesMadeDuringRebuildTest() {
+        StudentRepository studentRepository = mock(StudentRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        index = new StudentAgeIndex(studentRepository, transactionTemplate,
+                new InvalidationBus(new LocalInvalidationChannel(), 10), 1000);
+        index.put(1, 17);
+        when(studentRepository.streamAges()).thenAnswer(invocation -> Stream.of(view(1, 17), view(2, 18))
+                .peek(view -> {
+                    if (view.getId() == 2) {
+                        index.put(3, 19);
+                        index.remove(1);
+                    }
+                }));
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.ids(0, 100, 0, 10)).containsExactly(2L, 3L);
+    }
+
+    private static StudentAgeView view(long id, int age) {
+        return new StudentAgeView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getAge() {
+                return age;
+            }
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package pro.sky.hogwarts.invalidation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvalidationBusTest {
+
+    private RecordingChannel channel;
+    private InvalidationBus first;
+    private InvalidationBus second;
+    private final List<Long> received = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        channel = new RecordingChannel();
+        first = new InvalidationBus(channel, 3);
+        second = new InvalidationBus(channel, 3);
+        second.subscribe(EntityType.FACULTY, received::add);
+    }
+
+    @Test
+    public void deliversEventsToOtherNodesTest() {
+        first.publish(EntityType.FACULTY, 1);
+        first.publish(EntityType.FACULTY, 2);
+        first.flush();
+
+        assertThat(received).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    public void ignoresOwnEventsTest() {
+        List<Long> own = new ArrayList<>();
+        first.subscribe(EntityType.FACULTY, own::add);
+
+        first.publish(EntityType.FACULTY, 1);
+        first.flush();
+
+        assertThat(own).isEmpty();
+    }
+
+    @Test
+    public void coalescesRepeatedEventsTest() {
+        for (int i = 0; i < 10; i++) {
+            first.publish(EntityType.FACULTY, 1);
+        }
+        first.flush();
+        first.flush();
+
+        assertThat(channel.getPublished()).hasSize(1);
+        assertThat(received).containsExactly(1L);
+    }
+
+    @Test
+    public void collapsesStormIntoSingleInvalidateAllTest() {
+        for (long id = 0; id < 100; id++) {
+            first.publish(EntityType.FACULTY, id);
+        }
+        first.flush();
+
+        assertThat(channel.getPublished()).hasSize(1);
+        assertThat(received).containsExactly((Long) null);
+    }
+
+    @Test
+    public void continuesAfterListenerFailureTest() {
+        second.subscribe(EntityType.FACULTY, id -> {
+            throw new IllegalStateException("boom");
+        });
+        List<Long> students = new ArrayList<>();
+        second.subscribe(EntityType.STUDENT, students::add);
+
+        first.publish(EntityType.FACULTY, 1);
+        first.publish(EntityType.FACULTY, 2);
+        first.publish(EntityType.STUDENT, 3);
+        first.flush();
+
+        assertThat(received).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(students).containsExactly(3L);
+    }
+
+    @Test
+    public void invalidatesEverythingOnReconnectTest() {
+        List<Long> students = new ArrayList<>();
+        second.subscribe(EntityType.STUDENT, students::add);
+
+        channel.connect();
+
+        assertThat(received).containsExactly((Long) null);
+        assertThat(students).containsExactly((Long) null);
+    }
+
+    private static class RecordingChannel implements InvalidationChannel {
+        private final LocalInvalidationChannel delegate = new LocalInvalidationChannel();
+        private final List<String> published = new ArrayList<>();
+        private final List<Runnable> connectCallbacks = new ArrayList<>();
+
+        @Override
+        public void publish(String payload) {
+            published.add(payload);
+            delegate.publish(payload);
+        }
+
+        @Override
+        public void subscribe(Consumer<String> consumer) {
+            delegate.subscribe(consumer);
+        }
+
+        @Override
+        public void onConnect(Runnable callback) {
+            connectCallbacks.add(callback);
+        }
+
+        private void connect() {
+            connectCallbacks.forEach(Runnable::run);
+        }
+
+        private List<String> getPublished() {
+            return published;
+        }
+    }
+}
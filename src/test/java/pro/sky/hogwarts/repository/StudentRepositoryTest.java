@@ -0,0 +1,174 @@
+package pro.sky.hogwarts.repository;
+
+import com.github.javafaker.Faker;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import pro.sky.hogwarts.dto.StudentDtoOut;
+import pro.sky.hogwarts.entity.Faculty;
+import pro.sky.hogwarts.entity.Student;
+import pro.sky.hogwarts.mapper.AvatarMapper;
+import pro.sky.hogwarts.mapper.FacultyMapper;
+import pro.sky.hogwarts.mapper.StudentMapper;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StudentMapper.class, FacultyMapper.class, AvatarMapper.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class StudentRepositoryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    private static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private FacultyRepository facultyRepository;
+    @Autowired
+    private StudentMapper studentMapper;
+
+    private final Faker faker = new Faker();
+    private Statistics statistics;
+    private Faculty faculty;
+    private Faculty otherFaculty;
+    private Student student;
+
+    @BeforeEach
+    public void setUp() {
+        faculty = new Faculty(null, faker.harryPotter().house(), faker.color().name());
+        faculty.setStudentCount(5);
+        faculty = entityManager.persist(faculty);
+        otherFaculty = new Faculty(null, faker.harryPotter().house(), faker.color().name());
+        otherFaculty.setStudentCount(5);
+        otherFaculty = entityManager.persist(otherFaculty);
+        for (int i = 0; i < 10; i++) {
+            Student student = new Student();
+            student.setName(faker.harryPotter().character());
+            student.setAge(17);
+            student.setFaculty(i % 2 == 0 ? faculty : otherFaculty);
+            entityManager.persist(student);
+            if (i == 0) {
+                this.student = student;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void findPageWithFacultiesInOneStatementTest() {
+        List<StudentDtoOut> students = studentRepository.findWithAvatarByIdGreaterThan(0, PageRequest.of(0, 20))
+                .stream()
+                .map(studentMapper::toDto)
+                .collect(Collectors.toList());
+
+        assertThat(students).hasSize(10);
+        assertThat(students).allSatisfy(student -> assertThat(student.getFaculty()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findByAgeWithFacultiesInOneStatementTest() {
+        List<StudentDtoOut> students = studentRepository.findWithAvatarByAgeBetween(17, 17, 0, PageRequest.of(0, 20))
+                .stream()
+                .map(studentMapper::toDto)
+                .collect(Collectors.toList());
+
+        assertThat(students).hasSize(10);
+        assertThat(students).allSatisfy(student -> assertThat(student.getFaculty().getName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void findByFacultyInOneStatementTest() {
+        List<StudentDtoOut> students = studentRepository.findWithAvatarByFacultyId(faculty.getId(), 0, PageRequest.of(0, 20))
+                .stream()
+                .map(studentMapper::toDto)
+                .collect(Collectors.toList());
+
+        assertThat(students).hasSize(5);
+        assertThat(students).allSatisfy(student -> assertThat(student.getFaculty().getId()).isEqualTo(faculty.getId()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void updateVersionedMovesStudentTest() {
+        Optional<StudentWriteView> updated = studentRepository.updateVersioned(student.getId(), "Гарри", 18,
+                otherFaculty.getId(), student.getVersion());
+
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getVersion()).isEqualTo(student.getVersion() + 1);
+        assertThat(updated.get().getFacultyId()).isEqualTo(otherFaculty.getId());
+        assertThat(facultyRepository.findStudentCountById(faculty.getId())).contains(4L);
+        assertThat(facultyRepository.findStudentCountById(otherFaculty.getId())).contains(6L);
+    }
+
+    @Test
+    public void updateVersionedKeepsFacultyTest() {
+        Optional<StudentWriteView> updated = studentRepository.updateVersioned(student.getId(), "Гарри", 18,
+                null, -1);
+
+        assertThat(updated).isPresent();
+        assertThat(updated.get().getFacultyId()).isEqualTo(faculty.getId());
+        assertThat(facultyRepository.findStudentCountById(faculty.getId())).contains(5L);
+    }
+
+    @Test
+    public void updateVersionedStaleVersionTest() {
+        Optional<StudentWriteView> updated = studentRepository.updateVersioned(student.getId(), "Гарри", 18,
+                otherFaculty.getId(), student.getVersion() + 1);
+
+        assertThat(updated).isEmpty();
+        assertThat(studentRepository.findById(student.getId()))
+                .hasValueSatisfying(actual -> assertThat(actual.getAge()).isEqualTo(17));
+        assertThat(facultyRepository.findStudentCountById(faculty.getId())).contains(5L);
+        assertThat(facultyRepository.findStudentCountById(otherFaculty.getId())).contains(5L);
+    }
+
+    @Test
+    public void deleteVersionedTest() {
+        assertThat(studentRepository.deleteVersioned(student.getId(), student.getVersion() + 1)).isEmpty();
+        assertThat(studentRepository.existsById(student.getId())).isTrue();
+        assertThat(facultyRepository.findStudentCountById(faculty.getId())).contains(5L);
+
+        Optional<StudentWriteView> deleted = studentRepository.deleteVersioned(student.getId(), student.getVersion());
+
+        assertThat(deleted).isPresent();
+        assertThat(deleted.get().getFacultyId()).isEqualTo(faculty.getId());
+        assertThat(studentRepository.existsById(student.getId())).isFalse();
+        assertThat(facultyRepository.findStudentCountById(faculty.getId())).contains(4L);
+    }
+}
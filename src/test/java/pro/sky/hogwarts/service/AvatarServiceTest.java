@@ -0,0 +1,85 @@
+package pro.sky.hogwarts.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import pro.sky.hogwarts.cache.AvatarCache;
+import pro.sky.hogwarts.entity.Avatar;
+import pro.sky.hogwarts.entity.Student;
+import pro.sky.hogwarts.mapper.AvatarMapper;
+import pro.sky.hogwarts.mapper.PageMapper;
+import pro.sky.hogwarts.repository.AvatarContentRepository;
+import pro.sky.hogwarts.repository.AvatarRepository;
+import pro.sky.hogwarts.storage.DbAvatarStorage;
+import pro.sky.hogwarts.storage.DualAvatarStorage;
+import pro.sky.hogwarts.storage.FsAvatarStorage;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AvatarServiceTest {
+
+    @TempDir
+    Path avatarDir;
+
+    private AvatarRepository avatarRepository;
+    private AvatarContentRepository avatarContentRepository;
+    private DbAvatarStorage dbAvatarStorage;
+    private FsAvatarStorage fsAvatarStorage;
+    private AvatarService avatarService;
+    private final List<byte[]> savedToDb = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        avatarRepository = mock(AvatarRepository.class);
+        avatarContentRepository = mock(AvatarContentRepository.class);
+        dbAvatarStorage = mock(DbAvatarStorage.class);
+        fsAvatarStorage = new FsAvatarStorage(avatarDir.toString());
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> savedToDb.add(Files.readAllBytes(invocation.<Path>getArgument(1))))
+                .when(dbAvatarStorage).save(anyString(), any());
+        avatarService = new AvatarService(avatarRepository, avatarContentRepository,
+                new DualAvatarStorage(dbAvatarStorage, fsAvatarStorage), dbAvatarStorage, fsAvatarStorage,
+                mock(AvatarPreviewService.class), mock(AvatarCache.class), mock(AvatarMapper.class),
+                mock(PageMapper.class), transactionTemplate, 4, avatarDir.toString());
+    }
+
+    @Test
+    public void retriesAfterConcurrentInsertTest() throws Exception {
+        Student student = new Student();
+        student.setId(1L);
+        byte[] content = {1, 2, 3, 4};
+        when(avatarRepository.findByStudent_Id(anyLong())).thenReturn(Optional.empty());
+        when(dbAvatarStorage.exists(anyString())).thenReturn(false);
+        when(avatarRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("avatar_student_id_key"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Avatar avatar = avatarService.create(student,
+                new MockMultipartFile("avatar", "avatar.png", "image/png", content));
+
+        verify(avatarRepository, times(2)).saveAndFlush(any());
+        verify(avatarContentRepository, times(2)).lock(avatar.getChecksum());
+        assertThat(savedToDb).hasSize(2).allSatisfy(bytes -> assertThat(bytes).isEqualTo(content));
+        assertThat(Files.readAllBytes(fsAvatarStorage.resolve(avatar.getChecksum()))).isEqualTo(content);
+    }
+}